@@ -0,0 +1,65 @@
+import javax.swing.*;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Images of the game, decoded once and shared. {@link #preload(String...)} decodes them on a background thread
+ * at startup, {@link #icon(String)} then returns the decoded icon at once, or waits for the decoding still running.
+ * An image which was not preloaded is decoded on the first request.
+ */
+public final class AssetCache {
+
+	private static final Map<String, CompletableFuture<ImageIcon>> ICONS = new ConcurrentHashMap<>();
+
+	private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "asset-loader");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private AssetCache() {
+	}
+
+	/**
+	 * Starts decoding images in the background, images already requested are skipped.
+	 *
+	 * @param names The names of the resources, next to the classes of the game.
+	 */
+	public static void preload(final String... names) {
+		for (String name : names) {
+			ICONS.computeIfAbsent(name, n -> CompletableFuture.supplyAsync(() -> decode(n), LOADER));
+		}
+	}
+
+	/**
+	 * Gets a decoded image.
+	 *
+	 * @param name The name of the resource.
+	 * @return The shared icon.
+	 * @throws IllegalStateException if the resource is missing.
+	 */
+	public static ImageIcon icon(final String name) {
+		preload(name);
+		try {
+			return ICONS.get(name).join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException cause ? cause : e;
+		}
+	}
+
+	/**
+	 * Decodes an image, the constructor of the icon waits until the image is fully loaded.
+	 */
+	private static ImageIcon decode(final String name) {
+		URL url = AssetCache.class.getResource(name);
+		if (url == null) {
+			throw new IllegalStateException("Missing image " + name);
+		}
+		return new ImageIcon(url);
+	}
+}
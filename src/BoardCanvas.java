@@ -0,0 +1,674 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Board painted by one lightweight component instead of a grid of {@link JButtonField}. It paints the serpentine
+ * grid, the cell numbers, the player tokens and the obstacles itself.
+ * <p>
+ * The cells with their numbers and colors are rendered once into a cached layer, the obstacles into another one,
+ * so a repaint is two image blits plus the few tokens. A click is mapped to its cell in O(1) from the coordinates,
+ * nothing is stored per cell except its color, so the canvas works for boards far too large for buttons.
+ * <p>
+ * The board can be zoomed with the mouse wheel and panned by dragging. The layers hold only the visible part:
+ * the cells outside the view are skipped and the obstacles are found by an {@link ObstacleIndex} over their
+ * bounding boxes, so rendering costs what is on the screen and not what is on the board.
+ */
+public class BoardCanvas extends JComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	// Zooming in stops when the cells are this large, in pixels
+	private static final int MAX_ZOOM_CELL = 64;
+
+	private static final double ZOOM_STEP = 1.25;
+
+	// Reach of the strokes and the arrowheads beyond the path of an obstacle, in pixels
+	private static final int OBSTACLE_MARGIN = 32;
+
+	private final BoardLayout layout;
+
+	/**
+	 * Colors of the cells as ARGB, 0 for the default background.
+	 */
+	private final int[] cellColors;
+
+	/**
+	 * Players by cell, in the order they arrived, only cells with players are present.
+	 */
+	private final Map<Integer, List<Player>> tokens = new HashMap<>();
+
+	private final List<Obstacle> obstacleList = new ArrayList<>();
+
+	private final Rectangle cellBounds = new Rectangle();
+
+	private final Rectangle2D.Double obstacleBounds = new Rectangle2D.Double();
+
+	/**
+	 * The view in pixels of the unzoomed board, widened by {@value #OBSTACLE_MARGIN} pixels.
+	 */
+	private final Rectangle2D.Double viewArea = new Rectangle2D.Double();
+
+	private IntConsumer cellClickHandler;
+
+	private TokenAnimator tokenAnimator;
+
+	private QualityController qualityController;
+
+	/**
+	 * Bounding boxes of the obstacles in pixels of the unzoomed board, null when outdated.
+	 */
+	private ObstacleIndex obstacleIndex;
+
+	/**
+	 * Obstacles found in the view, reused by every rendering.
+	 */
+	private int[] visibleObstacles = new int[64];
+
+	private int visibleCount;
+
+	/**
+	 * Size of the board relative to the canvas, 1 shows the whole board.
+	 */
+	private double zoom = 1;
+
+	/**
+	 * Offset of the view into the zoomed board, in pixels.
+	 */
+	private int viewX;
+
+	private int viewY;
+
+	private int dragX;
+
+	private int dragY;
+
+	private BufferedImage cellLayer;
+
+	private boolean cellLayerValid;
+
+	private BufferedImage obstacleLayer;
+
+	private boolean obstacleLayerValid;
+
+	private int layerWidth;
+
+	private int layerHeight;
+
+	private double layerScaleX;
+
+	private double layerScaleY;
+
+	private double layerZoom = 1;
+
+	private int layerViewX;
+
+	private int layerViewY;
+
+	/**
+	 * Constructs a canvas.
+	 *
+	 * @param layout The size of the board.
+	 */
+	public BoardCanvas(final BoardLayout layout) {
+		this.layout = layout;
+		this.cellColors = new int[layout.getCellCount()];
+		setOpaque(true);
+		setFont(UIManager.getFont("Button.font"));
+		Color background = UIManager.getColor("Button.background");
+		setBackground(background != null ? background : new Color(238, 238, 238));
+		setForeground(Color.BLACK);
+		addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(final MouseEvent e) {
+				int cell = cellAt(e.getX(), e.getY());
+				if (cell >= 0 && cellClickHandler != null) {
+					cellClickHandler.accept(cell);
+				}
+			}
+		});
+		MouseAdapter viewport = new MouseAdapter() {
+			@Override
+			public void mousePressed(final MouseEvent e) {
+				dragX = e.getX();
+				dragY = e.getY();
+			}
+
+			@Override
+			public void mouseDragged(final MouseEvent e) {
+				panBy(dragX - e.getX(), dragY - e.getY());
+				dragX = e.getX();
+				dragY = e.getY();
+			}
+
+			@Override
+			public void mouseWheelMoved(final MouseWheelEvent e) {
+				zoomAt(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+			}
+		};
+		addMouseListener(viewport);
+		addMouseMotionListener(viewport);
+		addMouseWheelListener(viewport);
+	}
+
+	/**
+	 * Sets the handler of the clicks on the cells.
+	 *
+	 * @param cellClickHandler Receives the clicked cell.
+	 */
+	public void setCellClickHandler(final IntConsumer cellClickHandler) {
+		this.cellClickHandler = cellClickHandler;
+	}
+
+	/**
+	 * Sets the animator whose moving token is painted over the board.
+	 *
+	 * @param tokenAnimator The animator, null for none.
+	 */
+	public void setTokenAnimator(final TokenAnimator tokenAnimator) {
+		this.tokenAnimator = tokenAnimator;
+	}
+
+	/**
+	 * Sets the controller choosing the quality of the obstacles, it is told how long the paints take.
+	 *
+	 * @param qualityController The controller, null to always draw at the high quality.
+	 */
+	public void setQualityController(final QualityController qualityController) {
+		this.qualityController = qualityController;
+		if (qualityController != null) {
+			qualityController.addListener(this::qualityChanged);
+		}
+	}
+
+	private void qualityChanged() {
+		obstacleLayerValid = false;
+		repaint();
+	}
+
+	/**
+	 * Gets the layout of the board.
+	 *
+	 * @return The layout.
+	 */
+	public BoardLayout getBoardLayout() {
+		return layout;
+	}
+
+	/**
+	 * Gets the zoom of the view.
+	 *
+	 * @return The size of the board relative to the canvas, 1 when the whole board is shown.
+	 */
+	public double getZoom() {
+		return zoom;
+	}
+
+	/**
+	 * Zooms the view, the point of the board under the anchor stays where it is.
+	 * The zoom is kept between the whole board and cells of {@value #MAX_ZOOM_CELL} pixels.
+	 *
+	 * @param factor  The change of the zoom, above 1 to zoom in.
+	 * @param anchorX The x-coordinate of the anchor in the canvas.
+	 * @param anchorY The y-coordinate of the anchor in the canvas.
+	 */
+	public void zoomAt(final double factor, final int anchorX, final int anchorY) {
+		final int width = getWidth();
+		final int height = getHeight();
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		double cellSide = Math.min((double) width / layout.getColumns(), (double) height / layout.getRows());
+		double newZoom = Math.max(1, Math.min(zoom * factor, Math.max(1, MAX_ZOOM_CELL / cellSide)));
+		if (newZoom == zoom) {
+			return;
+		}
+		double boardX = (anchorX + viewX) / zoom;
+		double boardY = (anchorY + viewY) / zoom;
+		zoom = newZoom;
+		setView((int) Math.round(boardX * zoom) - anchorX, (int) Math.round(boardY * zoom) - anchorY);
+	}
+
+	/**
+	 * Moves the view over the zoomed board.
+	 *
+	 * @param dx The move to the right in pixels.
+	 * @param dy The move down in pixels.
+	 */
+	public void panBy(final int dx, final int dy) {
+		setView(viewX + dx, viewY + dy);
+	}
+
+	/**
+	 * Shows the whole board again.
+	 */
+	public void resetView() {
+		zoom = 1;
+		setView(0, 0);
+	}
+
+	/**
+	 * Sets the offset of the view, kept inside the board, the layers are rendered again on the next repaint.
+	 */
+	private void setView(final int x, final int y) {
+		viewX = Math.max(0, Math.min(x, boardWidth() - getWidth()));
+		viewY = Math.max(0, Math.min(y, boardHeight() - getHeight()));
+		if (zoom != layerZoom || viewX != layerViewX || viewY != layerViewY) {
+			cellLayerValid = false;
+			obstacleLayerValid = false;
+			repaint();
+		}
+	}
+
+	private int boardWidth() {
+		return (int) Math.round(getWidth() * zoom);
+	}
+
+	private int boardHeight() {
+		return (int) Math.round(getHeight() * zoom);
+	}
+
+	/**
+	 * Finds the cell under a point.
+	 *
+	 * @param x The x-coordinate in the canvas.
+	 * @param y The y-coordinate in the canvas.
+	 * @return The cell, or -1 if the point is outside the board.
+	 */
+	public int cellAt(final int x, final int y) {
+		if (x < 0 || y < 0 || x >= getWidth() || y >= getHeight()) {
+			return -1;
+		}
+		int column = (int) ((long) (x + viewX) * layout.getColumns() / boardWidth());
+		int screenRow = (int) ((long) (y + viewY) * layout.getRows() / boardHeight());
+		if (column >= layout.getColumns() || screenRow >= layout.getRows()) {
+			return -1;
+		}
+		return layout.cellAtScreen(screenRow, column);
+	}
+
+	/**
+	 * Gets the bounds of a cell in the canvas, outside of it when the cell is not in the view.
+	 *
+	 * @param cell   The cell.
+	 * @param bounds The rectangle to fill.
+	 * @return The filled rectangle.
+	 */
+	public Rectangle getCellBounds(final int cell, final Rectangle bounds) {
+		final int width = boardWidth();
+		final int height = boardHeight();
+		final int column = layout.columnOf(cell);
+		final int screenRow = layout.screenRowOf(cell);
+		final int x0 = (int) ((long) column * width / layout.getColumns());
+		final int x1 = (int) ((long) (column + 1) * width / layout.getColumns());
+		final int y0 = (int) ((long) screenRow * height / layout.getRows());
+		final int y1 = (int) ((long) (screenRow + 1) * height / layout.getRows());
+		bounds.setBounds(x0 - viewX, y0 - viewY, x1 - x0, y1 - y0);
+		return bounds;
+	}
+
+	/**
+	 * Repaints only the area of a cell.
+	 *
+	 * @param cell The cell.
+	 */
+	public void repaintCell(final int cell) {
+		getCellBounds(cell, cellBounds);
+		repaint(cellBounds);
+	}
+
+	/**
+	 * Sets the background of a cell. Only the cell is rendered again into the cached layer.
+	 *
+	 * @param cell  The cell.
+	 * @param color The color, null for the default background.
+	 */
+	public void setCellColor(final int cell, final Color color) {
+		cellColors[cell] = color == null ? 0 : color.getRGB();
+		if (cellLayerValid) {
+			Graphics2D g2 = cellLayer.createGraphics();
+			try {
+				g2.scale(layerScaleX, layerScaleY);
+				g2.setFont(getFont());
+				renderCell(g2, cell);
+			} finally {
+				g2.dispose();
+			}
+		}
+		repaintCell(cell);
+	}
+
+	/**
+	 * Puts the token of a player on a cell.
+	 *
+	 * @param cell   The cell.
+	 * @param player The player.
+	 */
+	public void addPlayer(final int cell, final Player player) {
+		tokens.computeIfAbsent(cell, c -> new ArrayList<>(2)).add(player);
+		repaintCell(cell);
+	}
+
+	/**
+	 * Removes the token of a player from a cell.
+	 *
+	 * @param cell   The cell.
+	 * @param player The player.
+	 */
+	public void removePlayer(final int cell, final Player player) {
+		List<Player> players = tokens.get(cell);
+		if (players != null) {
+			players.remove(player);
+			if (players.isEmpty()) {
+				tokens.remove(cell);
+			}
+		}
+		repaintCell(cell);
+	}
+
+	/**
+	 * Prepares the board for a new game by removing all tokens.
+	 */
+	public void prepareNewGame() {
+		tokens.clear();
+		repaint();
+	}
+
+	/**
+	 * Adds an obstacle, its cells are taken from its start and end positions.
+	 *
+	 * @param obstacle The obstacle.
+	 */
+	public void addObstacle(final Obstacle obstacle) {
+		obstacleList.add(obstacle);
+		invalidateObstacles();
+	}
+
+	/**
+	 * Removes all obstacles.
+	 */
+	public void clearObstacle() {
+		obstacleList.clear();
+		invalidateObstacles();
+	}
+
+	/**
+	 * Marks the cached layer of obstacles as outdated, it is rendered again on the next repaint.
+	 */
+	public void invalidateObstacles() {
+		obstacleIndex = null;
+		obstacleLayerValid = false;
+		repaint();
+	}
+
+	/**
+	 * Paints the cached cells, the tokens and the cached obstacles. The layers are rendered again only after
+	 * a change of the size, the screen scale or the view, or of the obstacles or their quality.
+	 *
+	 * @param g The Graphics object to paint on.
+	 */
+	@Override
+	protected void paintComponent(final Graphics g) {
+		final long paintStart = PaintMetrics.start();
+		final long qualityStart = qualityController != null ? System.nanoTime() : 0;
+		try {
+			final int width = getWidth();
+			final int height = getHeight();
+			if (width <= 0 || height <= 0) {
+				return;
+			}
+			Graphics2D g2 = (Graphics2D) g;
+			AffineTransform transform = g2.getTransform();
+			double scaleX = transform.getScaleX();
+			double scaleY = transform.getScaleY();
+			if (width != layerWidth || height != layerHeight || scaleX != layerScaleX || scaleY != layerScaleY) {
+				layerWidth = width;
+				layerHeight = height;
+				layerScaleX = scaleX;
+				layerScaleY = scaleY;
+				obstacleIndex = null;
+				setView(viewX, viewY);
+				cellLayerValid = false;
+				obstacleLayerValid = false;
+			}
+			if (zoom != layerZoom || viewX != layerViewX || viewY != layerViewY) {
+				layerZoom = zoom;
+				layerViewX = viewX;
+				layerViewY = viewY;
+				cellLayerValid = false;
+				obstacleLayerValid = false;
+			}
+			if (!cellLayerValid) {
+				cellLayer = createLayer(cellLayer, Transparency.OPAQUE);
+				renderCells();
+				cellLayerValid = true;
+			}
+			g2.drawImage(cellLayer, 0, 0, width, height, null);
+
+			paintTokens(g2);
+
+			if (!obstacleList.isEmpty()) {
+				if (!obstacleLayerValid) {
+					obstacleLayer = createLayer(obstacleLayer, Transparency.TRANSLUCENT);
+					renderObstacles();
+					obstacleLayerValid = true;
+				}
+				g2.drawImage(obstacleLayer, 0, 0, width, height, null);
+			}
+
+			if (tokenAnimator != null) {
+				tokenAnimator.paint(g2);
+			}
+		} finally {
+			PaintMetrics.record(PaintMetrics.Section.BOARD_CANVAS, paintStart);
+			if (qualityController != null) {
+				qualityController.record(System.nanoTime() - qualityStart);
+			}
+		}
+	}
+
+	/**
+	 * Creates a layer at the device resolution, the old one is reused if it has the right size.
+	 */
+	private BufferedImage createLayer(final BufferedImage old, final int transparency) {
+		final int width = (int) Math.ceil(layerWidth * layerScaleX);
+		final int height = (int) Math.ceil(layerHeight * layerScaleY);
+		if (old != null && old.getWidth() == width && old.getHeight() == height && old.getTransparency() == transparency) {
+			return old;
+		}
+		GraphicsConfiguration configuration = getGraphicsConfiguration();
+		if (configuration != null) {
+			return configuration.createCompatibleImage(width, height, transparency);
+		}
+		return new BufferedImage(
+			width,
+			height,
+			transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE
+		);
+	}
+
+	/**
+	 * Renders the grid with the numbers and the colors of the visible cells into the cell layer.
+	 */
+	private void renderCells() {
+		Graphics2D g2 = cellLayer.createGraphics();
+		try {
+			g2.scale(layerScaleX, layerScaleY);
+			g2.setFont(getFont());
+			g2.setColor(getBackground());
+			g2.fillRect(0, 0, layerWidth, layerHeight);
+			final int columns = layout.getColumns();
+			final int rows = layout.getRows();
+			final int firstColumn = (int) ((long) viewX * columns / boardWidth());
+			final int lastColumn = (int) Math.min(columns - 1, (long) (viewX + layerWidth - 1) * columns / boardWidth());
+			final int firstRow = (int) ((long) viewY * rows / boardHeight());
+			final int lastRow = (int) Math.min(rows - 1, (long) (viewY + layerHeight - 1) * rows / boardHeight());
+			getCellBounds(0, cellBounds);
+			// cells too small for borders and numbers show only their colors
+			final boolean coloredOnly = cellBounds.width < BoardPainter.MIN_BORDER_CELL || cellBounds.height < BoardPainter.MIN_BORDER_CELL;
+			for (int screenRow = firstRow; screenRow <= lastRow; screenRow++) {
+				for (int column = firstColumn; column <= lastColumn; column++) {
+					int cell = layout.cellAtScreen(screenRow, column);
+					if (!coloredOnly || cellColors[cell] != 0) {
+						renderCell(g2, cell);
+					}
+				}
+			}
+		} finally {
+			g2.dispose();
+		}
+	}
+
+	/**
+	 * Renders one cell: its background, its border and its number if the cell is large enough.
+	 */
+	private void renderCell(final Graphics2D g2, final int cell) {
+		BoardPainter.paintCell(
+			g2,
+			getCellBounds(cell, cellBounds),
+			cell,
+			cellColors[cell] == 0 ? getBackground() : new Color(cellColors[cell], true),
+			getForeground()
+		);
+	}
+
+	/**
+	 * Renders the obstacles crossing the view into the obstacle layer, anchored in the cells as on the buttons.
+	 */
+	private void renderObstacles() {
+		Graphics2D g2 = obstacleLayer.createGraphics();
+		try {
+			g2.setComposite(AlphaComposite.Clear);
+			g2.fillRect(0, 0, obstacleLayer.getWidth(), obstacleLayer.getHeight());
+			g2.setComposite(AlphaComposite.SrcOver);
+			g2.scale(layerScaleX, layerScaleY);
+			(qualityController != null ? qualityController.getQuality() : RenderQuality.HIGH).applyTo(g2);
+			// obstacles longer than the view are trimmed to it
+			g2.clipRect(0, 0, layerWidth, layerHeight);
+			getCellBounds(0, cellBounds);
+			if (cellBounds.width < BoardPainter.MIN_BORDER_CELL || cellBounds.height < BoardPainter.MIN_BORDER_CELL) {
+				// obstacles thinner than their cells would only cover the board with noise
+				return;
+			}
+			if (obstacleIndex == null) {
+				obstacleIndex = buildObstacleIndex();
+			}
+			viewArea.setFrameFromDiagonal(
+				(viewX - OBSTACLE_MARGIN) / zoom,
+				(viewY - OBSTACLE_MARGIN) / zoom,
+				(viewX + layerWidth + OBSTACLE_MARGIN) / zoom,
+				(viewY + layerHeight + OBSTACLE_MARGIN) / zoom
+			);
+			obstacleIndex.query(
+				(float) viewArea.getMinX(),
+				(float) viewArea.getMinY(),
+				(float) viewArea.getMaxX(),
+				(float) viewArea.getMaxY(),
+				this::addVisibleObstacle
+			);
+			// the order of the list, overlapping translucent obstacles blend as they always did
+			Arrays.sort(visibleObstacles, 0, visibleCount);
+			for (int i = 0; i < visibleCount; i++) {
+				renderObstacle(g2, obstacleList.get(visibleObstacles[i]));
+			}
+		} finally {
+			visibleCount = 0;
+			g2.dispose();
+		}
+	}
+
+	/**
+	 * Keeps an obstacle whose box is in the view if its path crosses the view too,
+	 * the box of a long diagonal covers much more of the board than its path.
+	 */
+	private void addVisibleObstacle(final int index) {
+		Obstacle obstacle = obstacleList.get(index);
+		int start = obstacle.getStartPosition();
+		int end = obstacle.getEndPosition();
+		if (!obstacle.crosses(anchorX(start), anchorY(start), anchorX(end), anchorY(end), viewArea)) {
+			return;
+		}
+		if (visibleCount == visibleObstacles.length) {
+			visibleObstacles = Arrays.copyOf(visibleObstacles, visibleCount * 2);
+		}
+		visibleObstacles[visibleCount++] = index;
+	}
+
+	private void renderObstacle(final Graphics2D g2, final Obstacle obstacle) {
+		Rectangle start = getCellBounds(obstacle.getStartPosition(), cellBounds);
+		int startX = start.x + start.width / 3;
+		int startY = start.y + start.height / 3 * 2;
+		Rectangle end = getCellBounds(obstacle.getEndPosition(), cellBounds);
+		obstacle.drawAt(g2, startX, startY, end.x + end.width / 3, end.y + end.height / 3 * 2);
+	}
+
+	/**
+	 * Indexes the paths of the obstacles on the unzoomed board, the index holds for every zoom and view.
+	 */
+	private ObstacleIndex buildObstacleIndex() {
+		final float[] boxes = new float[obstacleList.size() * 4];
+		for (int i = 0; i < obstacleList.size(); i++) {
+			Obstacle obstacle = obstacleList.get(i);
+			int start = obstacle.getStartPosition();
+			int end = obstacle.getEndPosition();
+			obstacle.bounds(anchorX(start), anchorY(start), anchorX(end), anchorY(end), obstacleBounds);
+			boxes[4 * i] = (float) obstacleBounds.getMinX();
+			boxes[4 * i + 1] = (float) obstacleBounds.getMinY();
+			boxes[4 * i + 2] = (float) obstacleBounds.getMaxX();
+			boxes[4 * i + 3] = (float) obstacleBounds.getMaxY();
+		}
+		return new ObstacleIndex(boxes);
+	}
+
+	/**
+	 * Gets the x-coordinate where the obstacles of a cell are anchored on the unzoomed board.
+	 */
+	private double anchorX(final int cell) {
+		return (layout.columnOf(cell) + 1 / 3.0) * getWidth() / layout.getColumns();
+	}
+
+	/**
+	 * Gets the y-coordinate where the obstacles of a cell are anchored on the unzoomed board.
+	 */
+	private double anchorY(final int cell) {
+		return (layout.screenRowOf(cell) + 2 / 3.0) * getHeight() / layout.getRows();
+	}
+
+	/**
+	 * Gets the size of a token, the sprite size or less for small cells.
+	 *
+	 * @return The size in pixels.
+	 */
+	public int getTokenSize() {
+		return BoardPainter.tokenSize(getCellBounds(0, cellBounds));
+	}
+
+	/**
+	 * Paints the tokens of the occupied cells, placed on a circle as on the buttons.
+	 */
+	private void paintTokens(final Graphics2D g2) {
+		if (tokens.isEmpty()) {
+			return;
+		}
+		final Rectangle clip = g2.getClipBounds();
+		final int size = getTokenSize();
+		for (Map.Entry<Integer, List<Player>> entry : tokens.entrySet()) {
+			Rectangle r = getCellBounds(entry.getKey(), cellBounds);
+			if (clip != null && !clip.intersects(r)) {
+				continue;
+			}
+			BoardPainter.paintTokens(g2, r, entry.getValue(), size);
+		}
+	}
+}
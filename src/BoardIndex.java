@@ -0,0 +1,186 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiled transition table of a board. For every cell it keeps the cell where a player landing on it
+ * finally stays, with chained obstacles (a Munro top on a Selkie head and so on) already resolved,
+ * so a move costs a single array load instead of a scan over the obstacles.
+ * <p>
+ * The table is immutable, it is built once when the obstacles are created or loaded and can be shared
+ * between threads.
+ */
+public final class BoardIndex {
+
+	private static final int NONE = -1;
+
+	private final int cellCount;
+
+	private final int[] destination;
+
+	private final int[] obstacleAt;
+
+	private final int[] starts;
+
+	private final int[] ends;
+
+	private BoardIndex(int cellCount, int[] destination, int[] obstacleAt, int[] starts, int[] ends) {
+		this.cellCount = cellCount;
+		this.destination = destination;
+		this.obstacleAt = obstacleAt;
+		this.starts = starts;
+		this.ends = ends;
+	}
+
+	/**
+	 * Creates a board without obstacles.
+	 *
+	 * @param cellCount The number of cells on the board.
+	 * @return The compiled board.
+	 */
+	public static BoardIndex empty(final int cellCount) {
+		return compile(cellCount, new int[0], new int[0]);
+	}
+
+	/**
+	 * Compiles the board from the positions of the obstacles.
+	 *
+	 * @param cellCount The number of cells on the board.
+	 * @param obstacles The obstacles with start and end positions set.
+	 * @return The compiled board.
+	 */
+	public static BoardIndex of(final int cellCount, final List<? extends Obstacle> obstacles) {
+		int[] starts = new int[obstacles.size()];
+		int[] ends = new int[obstacles.size()];
+		for (int i = 0; i < starts.length; i++) {
+			starts[i] = obstacles.get(i).getStartPosition();
+			ends[i] = obstacles.get(i).getEndPosition();
+		}
+		return compile(cellCount, starts, ends);
+	}
+
+	/**
+	 * Compiles the board, obstacle {@code i} moves a player from {@code starts[i]} to {@code ends[i]}.
+	 * Chains of obstacles are followed to the cell where the player finally stays.
+	 *
+	 * @param cellCount The number of cells on the board.
+	 * @param starts    The start cells of the obstacles.
+	 * @param ends      The end cells of the obstacles.
+	 * @return The compiled board.
+	 * @throws IllegalArgumentException if a cell is outside the board, two obstacles start on the same cell
+	 *                                  or the obstacles form a cycle.
+	 */
+	public static BoardIndex compile(final int cellCount, final int[] starts, final int[] ends) {
+		if (cellCount < 2) {
+			throw new IllegalArgumentException("Board needs at least 2 cells, got " + cellCount);
+		}
+		if (starts.length != ends.length) {
+			throw new IllegalArgumentException("Got %d starts and %d ends".formatted(starts.length, ends.length));
+		}
+		int[] obstacleAt = new int[cellCount];
+		Arrays.fill(obstacleAt, NONE);
+		for (int i = 0; i < starts.length; i++) {
+			checkCell(cellCount, starts[i]);
+			checkCell(cellCount, ends[i]);
+			if (obstacleAt[starts[i]] != NONE) {
+				throw new IllegalArgumentException(
+					"Obstacles %d and %d both start on cell %d".formatted(obstacleAt[starts[i]], i, starts[i] + 1)
+				);
+			}
+			obstacleAt[starts[i]] = i;
+		}
+
+		int[] destination = new int[cellCount];
+		for (int cell = 0; cell < cellCount; cell++) {
+			destination[cell] = cell;
+		}
+		// 0 - not visited, 1 - on the current chain, 2 - resolved
+		byte[] state = new byte[cellCount];
+		int[] chain = new int[starts.length + 1];
+		for (int start : starts) {
+			if (state[start] == 2) {
+				continue;
+			}
+			int length = 0;
+			int cell = start;
+			while (obstacleAt[cell] != NONE && state[cell] == 0) {
+				state[cell] = 1;
+				chain[length++] = cell;
+				cell = ends[obstacleAt[cell]];
+			}
+			if (state[cell] == 1) {
+				throw new IllegalArgumentException("Obstacles form a cycle through cell " + (cell + 1));
+			}
+			// cell is either free of obstacles or already resolved
+			final int target = destination[cell];
+			for (int i = 0; i < length; i++) {
+				destination[chain[i]] = target;
+				state[chain[i]] = 2;
+			}
+		}
+		return new BoardIndex(cellCount, destination, obstacleAt, starts.clone(), ends.clone());
+	}
+
+	private static void checkCell(final int cellCount, final int cell) {
+		if (cell < 0 || cell >= cellCount) {
+			throw new IllegalArgumentException("Cell " + cell + " out of board with " + cellCount + " cells");
+		}
+	}
+
+	/**
+	 * Gets the cell where a player landing on the specified cell finally stays.
+	 *
+	 * @param cell The cell the player landed on.
+	 * @return The final cell, the cell itself if no obstacle starts on it.
+	 */
+	public int destination(final int cell) {
+		return destination[cell];
+	}
+
+	/**
+	 * Gets the obstacle which starts on the specified cell.
+	 *
+	 * @param cell The cell to check.
+	 * @return The index of the obstacle, or -1 if no obstacle starts on the cell.
+	 */
+	public int obstacleAt(final int cell) {
+		return obstacleAt[cell];
+	}
+
+	/**
+	 * Gets the number of cells on the board.
+	 *
+	 * @return The number of cells.
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Gets the number of obstacles on the board.
+	 *
+	 * @return The number of obstacles.
+	 */
+	public int getObstacleCount() {
+		return starts.length;
+	}
+
+	/**
+	 * Gets the start cell of an obstacle.
+	 *
+	 * @param obstacle The index of the obstacle.
+	 * @return The start cell.
+	 */
+	public int getStart(final int obstacle) {
+		return starts[obstacle];
+	}
+
+	/**
+	 * Gets the end cell of an obstacle, chains are not followed.
+	 *
+	 * @param obstacle The index of the obstacle.
+	 * @return The end cell.
+	 */
+	public int getEnd(final int obstacle) {
+		return ends[obstacle];
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * Geometry of a serpentine board. Cell 0 is in the bottom left corner, the bottom row goes from left to right,
+ * the next row from right to left and so on, so the last cell is in the top row.
+ * Rows are counted from the bottom, screen rows from the top.
+ * <p>
+ * All conversions are O(1), nothing is stored per cell, so the layout is the same for a board of 100 cells
+ * and for a board of a million cells.
+ */
+public final class BoardLayout {
+
+	public static final int DEFAULT_COLUMNS = 10;
+
+	public static final int DEFAULT_ROWS = 10;
+
+	public static final int MAX_SIZE = 1000;
+
+	public static final BoardLayout DEFAULT = new BoardLayout(DEFAULT_COLUMNS, DEFAULT_ROWS);
+
+	private final int columns;
+
+	private final int rows;
+
+	/**
+	 * Constructs a layout.
+	 *
+	 * @param columns The number of cells in a row, from 1 to {@link #MAX_SIZE}.
+	 * @param rows    The number of rows, from 1 to {@link #MAX_SIZE}.
+	 */
+	public BoardLayout(final int columns, final int rows) {
+		if (columns < 1 || columns > MAX_SIZE || rows < 1 || rows > MAX_SIZE) {
+			throw new IllegalArgumentException(
+				"Board %dx%d out of range 1x1 to %dx%d".formatted(columns, rows, MAX_SIZE, MAX_SIZE)
+			);
+		}
+		if (columns * rows < 2) {
+			throw new IllegalArgumentException("Board needs at least 2 cells");
+		}
+		this.columns = columns;
+		this.rows = rows;
+	}
+
+	/**
+	 * Creates the layout from the system properties {@code selkies.columns} and {@code selkies.rows},
+	 * the default 10x10 board is used for missing properties.
+	 *
+	 * @return The configured layout.
+	 */
+	public static BoardLayout fromSystemProperties() {
+		return new BoardLayout(
+			Integer.getInteger("selkies.columns", DEFAULT_COLUMNS),
+			Integer.getInteger("selkies.rows", DEFAULT_ROWS)
+		);
+	}
+
+	/**
+	 * Gets the number of cells in a row.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Gets the number of rows.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Gets the number of cells on the board.
+	 *
+	 * @return The number of cells.
+	 */
+	public int getCellCount() {
+		return columns * rows;
+	}
+
+	/**
+	 * Gets the last cell, reaching it wins the game.
+	 *
+	 * @return The index of the last cell.
+	 */
+	public int getLastCell() {
+		return columns * rows - 1;
+	}
+
+	/**
+	 * Gets the row of a cell, counted from the bottom.
+	 *
+	 * @param cell The cell.
+	 * @return The row.
+	 */
+	public int rowOf(final int cell) {
+		return cell / columns;
+	}
+
+	/**
+	 * Gets the row of a cell, counted from the top as it is shown on screen.
+	 *
+	 * @param cell The cell.
+	 * @return The screen row.
+	 */
+	public int screenRowOf(final int cell) {
+		return rows - 1 - cell / columns;
+	}
+
+	/**
+	 * Gets the column of a cell, counted from the left.
+	 *
+	 * @param cell The cell.
+	 * @return The column.
+	 */
+	public int columnOf(final int cell) {
+		int offset = cell % columns;
+		return (cell / columns) % 2 == 0 ? offset : columns - 1 - offset;
+	}
+
+	/**
+	 * Gets the cell in a row counted from the bottom.
+	 *
+	 * @param row    The row.
+	 * @param column The column.
+	 * @return The cell.
+	 */
+	public int cellAt(final int row, final int column) {
+		return row * columns + (row % 2 == 0 ? column : columns - 1 - column);
+	}
+
+	/**
+	 * Gets the cell in a row counted from the top as it is shown on screen.
+	 *
+	 * @param screenRow The screen row.
+	 * @param column    The column.
+	 * @return The cell.
+	 */
+	public int cellAtScreen(final int screenRow, final int column) {
+		return cellAt(rows - 1 - screenRow, column);
+	}
+
+	@Override
+	public String toString() {
+		return columns + "x" + rows;
+	}
+}
@@ -0,0 +1,182 @@
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Paints a whole board without Swing: the serpentine grid with the numbers, the tokens and the obstacles, the same
+ * way as the {@link BoardCanvas}. It holds no state of a game and reads no UI defaults, the font and the colors
+ * are given, so one painter can be used by several threads at once, each with its own saves.
+ * <p>
+ * The cells and the tokens are drawn by the static methods shared with the canvas.
+ */
+public final class BoardPainter {
+
+	// Smallest cell, in pixels, which still shows its number
+	static final int MIN_NUMBER_CELL = 16;
+
+	// Smallest cell, in pixels, which still has a border
+	static final int MIN_BORDER_CELL = 4;
+
+	static final int MIN_TOKEN_SIZE = 6;
+
+	static final Color BORDER_COLOR = Color.GRAY;
+
+	private final BoardLayout layout;
+
+	private final Font font;
+
+	private final Color background;
+
+	private final Color foreground;
+
+	/**
+	 * Constructs a painter.
+	 *
+	 * @param layout     The size of the board.
+	 * @param font       The font of the cell numbers, null for the default font of the graphics.
+	 * @param background The background of the cells.
+	 * @param foreground The color of the cell numbers.
+	 */
+	public BoardPainter(final BoardLayout layout, final Font font, final Color background, final Color foreground) {
+		this.layout = layout;
+		this.font = font;
+		this.background = background;
+		this.foreground = foreground;
+	}
+
+	/**
+	 * Paints the board filling the area from the origin, the obstacles over the tokens as on the canvas.
+	 *
+	 * @param g2        The Graphics2D object to paint on.
+	 * @param width     The width of the area.
+	 * @param height    The height of the area.
+	 * @param obstacles The obstacles.
+	 * @param players   The players, on their cells.
+	 */
+	public void paint(final Graphics2D g2, final int width, final int height,
+					  final List<Obstacle> obstacles, final List<Player> players) {
+		final Rectangle r = new Rectangle();
+		if (font != null) {
+			g2.setFont(font);
+		}
+		g2.setColor(background);
+		g2.fillRect(0, 0, width, height);
+		for (int cell = 0; cell < layout.getCellCount(); cell++) {
+			paintCell(g2, cellBounds(cell, width, height, r), cell, background, foreground);
+		}
+
+		final Map<Integer, List<Player>> tokens = new LinkedHashMap<>();
+		for (Player player : players) {
+			tokens.computeIfAbsent(player.getPlayerPos(), c -> new ArrayList<>(2)).add(player);
+		}
+		final int size = tokenSize(cellBounds(0, width, height, r));
+		for (Map.Entry<Integer, List<Player>> entry : tokens.entrySet()) {
+			paintTokens(g2, cellBounds(entry.getKey(), width, height, r), entry.getValue(), size);
+		}
+
+		cellBounds(0, width, height, r);
+		if (r.width < MIN_BORDER_CELL || r.height < MIN_BORDER_CELL) {
+			// obstacles thinner than their cells would only cover the board with noise
+			return;
+		}
+		Graphics2D og = (Graphics2D) g2.create();
+		try {
+			RenderQuality.HIGH.applyTo(og);
+			og.clipRect(0, 0, width, height);
+			for (Obstacle obstacle : obstacles) {
+				Rectangle start = cellBounds(obstacle.getStartPosition(), width, height, r);
+				int startX = start.x + start.width / 3;
+				int startY = start.y + start.height / 3 * 2;
+				Rectangle end = cellBounds(obstacle.getEndPosition(), width, height, r);
+				obstacle.drawAt(og, startX, startY, end.x + end.width / 3, end.y + end.height / 3 * 2);
+			}
+		} finally {
+			og.dispose();
+		}
+	}
+
+	/**
+	 * Gets the bounds of a cell on a board filling the area from the origin.
+	 */
+	private Rectangle cellBounds(final int cell, final int width, final int height, final Rectangle bounds) {
+		final int column = layout.columnOf(cell);
+		final int screenRow = layout.screenRowOf(cell);
+		final int x0 = (int) ((long) column * width / layout.getColumns());
+		final int x1 = (int) ((long) (column + 1) * width / layout.getColumns());
+		final int y0 = (int) ((long) screenRow * height / layout.getRows());
+		final int y1 = (int) ((long) (screenRow + 1) * height / layout.getRows());
+		bounds.setBounds(x0, y0, x1 - x0, y1 - y0);
+		return bounds;
+	}
+
+	/**
+	 * Paints one cell: its background, its border and its number if the cell is large enough.
+	 *
+	 * @param g2         The Graphics2D object to paint on, with the font of the numbers.
+	 * @param r          The bounds of the cell.
+	 * @param cell       The cell.
+	 * @param fill       The background of the cell.
+	 * @param foreground The color of the number.
+	 */
+	static void paintCell(final Graphics2D g2, final Rectangle r, final int cell, final Color fill, final Color foreground) {
+		g2.setColor(fill);
+		g2.fillRect(r.x, r.y, r.width, r.height);
+		if (r.width < MIN_BORDER_CELL || r.height < MIN_BORDER_CELL) {
+			return;
+		}
+		g2.setColor(BORDER_COLOR);
+		g2.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+		if (r.width < MIN_NUMBER_CELL || r.height < MIN_NUMBER_CELL) {
+			return;
+		}
+		String number = Integer.toString(cell + 1);
+		FontMetrics metrics = g2.getFontMetrics();
+		int textWidth = metrics.stringWidth(number);
+		if (textWidth > r.width - 2) {
+			return;
+		}
+		g2.setColor(foreground);
+		g2.drawString(
+			number,
+			r.x + (r.width - textWidth) / 2,
+			r.y + (r.height - metrics.getHeight()) / 2 + metrics.getAscent()
+		);
+	}
+
+	/**
+	 * Gets the size of a token, the sprite size or less for small cells.
+	 *
+	 * @param r The bounds of a cell.
+	 * @return The size in pixels.
+	 */
+	static int tokenSize(final Rectangle r) {
+		return Math.max(MIN_TOKEN_SIZE, Math.min(PictogramAtlas.SPRITE_SIZE, Math.min(r.width, r.height)));
+	}
+
+	/**
+	 * Paints the tokens of a cell, placed on a circle as on the buttons.
+	 *
+	 * @param g2      The Graphics2D object to paint on.
+	 * @param r       The bounds of the cell.
+	 * @param players The players on the cell, in the order they arrived.
+	 * @param size    The size of a token.
+	 */
+	static void paintTokens(final Graphics2D g2, final Rectangle r, final List<Player> players, final int size) {
+		int side = Math.min(r.width, r.height);
+		int radius = Math.max(0, side / 2 - size / 2);
+		double addAngle = 2 * Math.PI / players.size();
+		double angle = Math.PI / -2;
+		for (Player player : players) {
+			PictogramAtlas.draw(
+				g2,
+				player.getPictogramPainter(),
+				(int) Math.round(radius * Math.cos(angle)) + r.x + r.width / 2,
+				(int) Math.round(radius * Math.sin(angle)) + r.y + r.height / 2,
+				size
+			);
+			angle += addAngle;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * The dice button and its roll. A click on the idle dice starts the animated roll, after {@value #ROLL_MILLIS} ms
+ * the button shows the value, the next click plays the move. Clicks during the roll are ignored, so fast clicking
+ * neither stacks rolls nor replaces a value which was not played yet.
+ * <p>
+ * The roll is timed by one reusable one-shot Swing timer instead of a thread per roll, {@link #cancel()} drops
+ * a running roll. All methods must be called on the Event Dispatch Thread.
+ */
+public class DiceRoll {
+
+	public static final int ROLL_MILLIS = 2000;
+
+	private static final String IDLE_IMAGE = "dice.png";
+
+	private static final String ROLLING_IMAGE = "dice.gif";
+
+	/**
+	 * States of the dice.
+	 */
+	public enum State {
+		/**
+		 * Waiting for a click to roll.
+		 */
+		IDLE,
+		/**
+		 * Rolling, the value is not known yet.
+		 */
+		ROLLING,
+		/**
+		 * Showing the value, waiting for a click to play the move.
+		 */
+		ROLLED
+	}
+
+	private final JButton button;
+
+	private final IntSupplier dice;
+
+	private final IntConsumer move;
+
+	private final Timer timer;
+
+	private State state;
+
+	private int value;
+
+	/**
+	 * Constructs the dice, idle.
+	 *
+	 * @param button The button showing the dice.
+	 * @param dice   Rolls a value.
+	 * @param move   Plays the move with the rolled value.
+	 */
+	public DiceRoll(final JButton button, final IntSupplier dice, final IntConsumer move) {
+		this.button = button;
+		this.dice = dice;
+		this.move = move;
+		this.timer = new Timer(ROLL_MILLIS, e -> rolled());
+		this.timer.setRepeats(false);
+		button.addActionListener(e -> click());
+		showIdle();
+	}
+
+	/**
+	 * Starts decoding the images of the dice in the background, to be called at startup.
+	 */
+	public static void preload() {
+		AssetCache.preload(IDLE_IMAGE, ROLLING_IMAGE);
+	}
+
+	/**
+	 * Handles a click: rolls the idle dice or plays the rolled value, nothing during a roll.
+	 */
+	public void click() {
+		switch (state) {
+			case IDLE -> {
+				state = State.ROLLING;
+				button.setIcon(AssetCache.icon(ROLLING_IMAGE));
+				timer.restart();
+			}
+			case ROLLING -> {
+				// the running roll gives the value
+			}
+			case ROLLED -> {
+				int rolled = value;
+				showIdle();
+				move.accept(rolled);
+			}
+		}
+	}
+
+	/**
+	 * Drops the running roll or the value which was not played, the dice is idle again.
+	 */
+	public void cancel() {
+		timer.stop();
+		showIdle();
+	}
+
+	/**
+	 * Gets the state of the dice.
+	 *
+	 * @return The state.
+	 */
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * Gets the rolled value.
+	 *
+	 * @return The value shown after the roll, 0 when idle or rolling.
+	 */
+	public int getValue() {
+		return value;
+	}
+
+	private void rolled() {
+		if (state != State.ROLLING) {
+			return;
+		}
+		state = State.ROLLED;
+		value = dice.getAsInt();
+		button.setIcon(null);
+		button.setPreferredSize(new Dimension(200, 200));
+		button.setText("Move by " + value + " steps");
+	}
+
+	private void showIdle() {
+		state = State.IDLE;
+		value = 0;
+		button.setText(null);
+		button.setIcon(AssetCache.icon(IDLE_IMAGE));
+	}
+}
@@ -0,0 +1,131 @@
+import javax.swing.*;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Collects the cells and the info rows changed by the game and refreshes only them, once per frame.
+ * Marking is cheap and can happen many times during one move, a one-shot Swing timer flushes all the marks
+ * together at the next frame, so nothing blocks the Event Dispatch Thread and a move with a chain of
+ * obstacles costs one repaint of the few cells it touched.
+ * <p>
+ * All methods must be called on the Event Dispatch Thread.
+ */
+public class DirtyTracker {
+
+	public static final int FRAME_MILLIS = 16;
+
+	private final DirtySet cells;
+
+	private final DirtySet rows;
+
+	private final IntConsumer cellRefresher;
+
+	private final IntConsumer rowRefresher;
+
+	private final Timer timer;
+
+	/**
+	 * Constructs a tracker.
+	 *
+	 * @param cellCount     The number of cells of the board.
+	 * @param cellRefresher Repaints one cell of the board.
+	 * @param rowRefresher  Refreshes one row of the info pane.
+	 */
+	public DirtyTracker(final int cellCount, final IntConsumer cellRefresher, final IntConsumer rowRefresher) {
+		this.cells = new DirtySet(cellCount);
+		this.rows = new DirtySet(16);
+		this.cellRefresher = cellRefresher;
+		this.rowRefresher = rowRefresher;
+		this.timer = new Timer(FRAME_MILLIS, e -> flush());
+		this.timer.setRepeats(false);
+	}
+
+	/**
+	 * Marks a cell of the board as changed.
+	 *
+	 * @param cell The cell.
+	 */
+	public void markCell(final int cell) {
+		if (cells.add(cell)) {
+			schedule();
+		}
+	}
+
+	/**
+	 * Marks a row of the info pane as changed.
+	 *
+	 * @param row The index of the row.
+	 */
+	public void markRow(final int row) {
+		if (rows.add(row)) {
+			schedule();
+		}
+	}
+
+	/**
+	 * Refreshes the marked cells and rows now, for example before a modal dialog blocks the next frame.
+	 */
+	public void flush() {
+		timer.stop();
+		cells.drain(cellRefresher);
+		rows.drain(rowRefresher);
+	}
+
+	/**
+	 * Forgets all marks without refreshing them, for a board which is rebuilt anyway.
+	 */
+	public void clear() {
+		timer.stop();
+		cells.drain(i -> {
+		});
+		rows.drain(i -> {
+		});
+	}
+
+	private void schedule() {
+		if (!timer.isRunning()) {
+			timer.start();
+		}
+	}
+
+	/**
+	 * Set of small non-negative ints which can be drained in the order they were added. The bits find the
+	 * duplicates, the array keeps the members, so draining costs the number of members and not the range.
+	 */
+	private static final class DirtySet {
+
+		private final BitSet bits;
+
+		private int[] items = new int[16];
+
+		private int size;
+
+		private DirtySet(final int range) {
+			this.bits = new BitSet(range);
+		}
+
+		private boolean add(final int value) {
+			if (bits.get(value)) {
+				return false;
+			}
+			bits.set(value);
+			if (size == items.length) {
+				items = Arrays.copyOf(items, size * 2);
+			}
+			items[size++] = value;
+			return true;
+		}
+
+		private void drain(final IntConsumer consumer) {
+			// members added while draining are kept for the next flush
+			final int count = size;
+			for (int i = 0; i < count; i++) {
+				bits.clear(items[i]);
+				consumer.accept(items[i]);
+			}
+			System.arraycopy(items, count, items, 0, size - count);
+			size -= count;
+		}
+	}
+}
@@ -0,0 +1,382 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed archive of many saved games. The games are encoded by {@link SaveCodec}, each with its own CRC32,
+ * and gathered into blocks of about {@value #BLOCK_SIZE} bytes, every block compressed on its own:
+ * <pre>
+ * int    magic "SLKA", int version
+ * blocks int raw length, int compressed length, int games, int CRC32 of the compressed bytes, compressed bytes
+ *        raw content: per game an int length and the game
+ * int    0, the end, then long number of games
+ * </pre>
+ * The {@link Writer} holds one block in memory. The reader reads the blocks in a row and decompresses them
+ * in parallel, at most two blocks per thread are in flight, and hands the games over in the order of
+ * the archive.
+ * <p>
+ * Command line: {@code Main archive --out <archive> <save, library or directory>...} writes an archive,
+ * {@code Main archive [--threads <n>] <archive>} checks one.
+ */
+public final class GameArchive {
+
+	public static final int BLOCK_SIZE = 256 * 1024;
+
+	private static final int MAGIC = 0x534C4B41;
+
+	private static final int VERSION = 1;
+
+	// a block is never larger, a corrupted length is not allocated
+	private static final int MAX_BLOCK = 64 * BLOCK_SIZE;
+
+	private GameArchive() {
+	}
+
+	/**
+	 * Streaming writer of an archive.
+	 */
+	public static final class Writer implements Closeable {
+
+		private final DataOutputStream out;
+
+		private final ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_SIZE + 1024);
+
+		private final DataOutputStream blockData = new DataOutputStream(block);
+
+		private final ByteArrayOutputStream game = new ByteArrayOutputStream(256);
+
+		private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+		private final CRC32 crc = new CRC32();
+
+		private byte[] compressed = new byte[BLOCK_SIZE];
+
+		private int blockGames;
+
+		private long games;
+
+		/**
+		 * Starts an archive.
+		 *
+		 * @param out The target, closed with the writer.
+		 * @throws IOException if the target can't be written.
+		 */
+		public Writer(final OutputStream out) throws IOException {
+			this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+			this.out.writeInt(MAGIC);
+			this.out.writeInt(VERSION);
+		}
+
+		/**
+		 * Appends a game.
+		 *
+		 * @param save The game.
+		 * @throws IOException if the target can't be written.
+		 */
+		public void add(final Save save) throws IOException {
+			game.reset();
+			SaveCodec.write(save, game);
+			blockData.writeInt(game.size());
+			game.writeTo(blockData);
+			blockGames++;
+			games++;
+			if (block.size() >= BLOCK_SIZE) {
+				writeBlock();
+			}
+		}
+
+		/**
+		 * Gets the number of games written.
+		 *
+		 * @return The number of games.
+		 */
+		public long getGames() {
+			return games;
+		}
+
+		/**
+		 * Writes the last block and the end of the archive, and closes the target.
+		 *
+		 * @throws IOException if the target can't be written.
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				writeBlock();
+				out.writeInt(0);
+				out.writeLong(games);
+				out.flush();
+			} finally {
+				deflater.end();
+				out.close();
+			}
+		}
+
+		private void writeBlock() throws IOException {
+			if (blockGames == 0) {
+				return;
+			}
+			byte[] raw = block.toByteArray();
+			deflater.reset();
+			deflater.setInput(raw);
+			deflater.finish();
+			int length = 0;
+			while (!deflater.finished()) {
+				if (length == compressed.length) {
+					compressed = Arrays.copyOf(compressed, compressed.length * 2);
+				}
+				length += deflater.deflate(compressed, length, compressed.length - length);
+			}
+			crc.reset();
+			crc.update(compressed, 0, length);
+			out.writeInt(raw.length);
+			out.writeInt(length);
+			out.writeInt(blockGames);
+			out.writeInt((int) crc.getValue());
+			out.write(compressed, 0, length);
+			block.reset();
+			blockGames = 0;
+		}
+	}
+
+	/**
+	 * Reads an archive, decompressing the blocks in parallel.
+	 *
+	 * @param in      The archive, read to its end but not closed.
+	 * @param threads The number of threads decompressing the blocks.
+	 * @param games   Receives the games in the order of the archive, on the calling thread.
+	 * @return The number of games.
+	 * @throws IOException if the archive can't be read or is corrupted.
+	 */
+	public static long read(final InputStream in, final int threads, final Consumer<Save> games) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a game archive");
+		}
+		int version = data.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported archive version " + version);
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayDeque<Future<List<Save>>> inFlight = new ArrayDeque<>();
+		long count = 0;
+		try {
+			while (true) {
+				int rawLength = data.readInt();
+				if (rawLength == 0) {
+					break;
+				}
+				int length = data.readInt();
+				int blockGames = data.readInt();
+				int checksum = data.readInt();
+				if (rawLength < 0 || rawLength > MAX_BLOCK || length < 0 || length > MAX_BLOCK || blockGames < 1) {
+					throw new IOException("Corrupted block header");
+				}
+				byte[] compressed = new byte[length];
+				data.readFully(compressed);
+				inFlight.add(pool.submit(() -> decode(compressed, rawLength, blockGames, checksum)));
+				if (inFlight.size() >= 2 * threads) {
+					count += deliver(inFlight.poll(), games);
+				}
+			}
+			while (!inFlight.isEmpty()) {
+				count += deliver(inFlight.poll(), games);
+			}
+			long expected = data.readLong();
+			if (expected != count) {
+				throw new IOException("Archive holds %d games, %d were read".formatted(expected, count));
+			}
+			return count;
+		} catch (EOFException e) {
+			throw new IOException("Archive is truncated", e);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Reads an archive file, see {@link #read(InputStream, int, Consumer)}.
+	 *
+	 * @param file    The archive.
+	 * @param threads The number of threads decompressing the blocks.
+	 * @param games   Receives the games in the order of the archive.
+	 * @return The number of games.
+	 * @throws IOException if the archive can't be read or is corrupted.
+	 */
+	public static long read(final Path file, final int threads, final Consumer<Save> games) throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			return read(in, threads, games);
+		}
+	}
+
+	private static int deliver(final Future<List<Save>> block, final Consumer<Save> games) throws IOException {
+		List<Save> saves;
+		try {
+			saves = block.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading the archive", e);
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+		}
+		saves.forEach(games);
+		return saves.size();
+	}
+
+	/**
+	 * Checks, decompresses and decodes one block, on a thread of the pool.
+	 */
+	private static List<Save> decode(final byte[] compressed, final int rawLength, final int blockGames,
+									 final int checksum) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(compressed);
+		if ((int) crc.getValue() != checksum) {
+			throw new IOException("Corrupted block, checksum mismatch");
+		}
+		byte[] raw = new byte[rawLength];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(compressed);
+			int length = 0;
+			while (length < rawLength && !inflater.finished()) {
+				int n = inflater.inflate(raw, length, rawLength - length);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				length += n;
+			}
+			if (length != rawLength || !inflater.finished()) {
+				throw new IOException("Corrupted block, wrong length");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupted block", e);
+		} finally {
+			inflater.end();
+		}
+		DataInputStream data = new DataInputStream(new ByteArrayInputStream(raw));
+		List<Save> saves = new ArrayList<>(blockGames);
+		for (int i = 0; i < blockGames; i++) {
+			int length = data.readInt();
+			if (length < 0 || length > data.available()) {
+				throw new IOException("Corrupted block, wrong game length");
+			}
+			// a game is decoded from its own bytes, it can't run into the next one
+			saves.add(SaveCodec.read(new ByteArrayInputStream(raw, rawLength - data.available(), length)));
+			data.skipBytes(length);
+		}
+		return saves;
+	}
+
+	/**
+	 * Command line entry, see the class description for the arguments.
+	 *
+	 * @param args The options followed by the inputs.
+	 */
+	public static void main(String[] args) throws IOException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		Path out = null;
+		List<Path> inputs = new ArrayList<>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--out" -> out = Path.of(args[++i]);
+					case "--threads" -> threads = Integer.parseInt(args[++i]);
+					default -> inputs.add(Path.of(args[i]));
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			usage();
+			return;
+		}
+		if (inputs.isEmpty() || threads < 1 || (out == null && inputs.size() != 1)) {
+			usage();
+			return;
+		}
+		long start = System.nanoTime();
+		if (out == null) {
+			long[] turns = new long[1];
+			long games = read(inputs.get(0), threads, save -> {
+				for (Player player : save.getPlayerList()) {
+					turns[0] += player.getCountSteps();
+				}
+			});
+			System.out.println("Read %d games, %d turns, in %d ms".formatted(
+				games, turns[0], (System.nanoTime() - start) / 1_000_000));
+			return;
+		}
+		int failed = 0;
+		try (Writer writer = new Writer(Files.newOutputStream(out))) {
+			for (Path input : inputs) {
+				failed += export(input, writer);
+			}
+			System.out.println("Archived %d games in %d ms".formatted(
+				writer.getGames(), (System.nanoTime() - start) / 1_000_000));
+		}
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Appends a save, all games of a library or all saves of a directory.
+	 *
+	 * @return The number of games which could not be read.
+	 */
+	private static int export(final Path input, final Writer writer) throws IOException {
+		if (Files.isDirectory(input)) {
+			int failed = 0;
+			List<Path> files;
+			try (Stream<Path> walk = Files.walk(input)) {
+				files = walk.filter(Files::isRegularFile).sorted().toList();
+			}
+			for (Path file : files) {
+				failed += export(file, writer);
+			}
+			return failed;
+		}
+		if (input.getFileName().toString().endsWith(".lib")) {
+			try (SaveLibrary library = SaveLibrary.open(input)) {
+				for (int slot = 0; slot < library.size(); slot++) {
+					writer.add(library.load(slot));
+				}
+			}
+			return 0;
+		}
+		try {
+			writer.add(Save.load(input.toFile()));
+			return 0;
+		} catch (IOException | ClassNotFoundException e) {
+			System.err.println("Can't archive %s: %s".formatted(input, e));
+			return 1;
+		}
+	}
+
+	private static void usage() {
+		System.err.println("Usage: Main archive --out <archive> <save, library or directory>...\n"
+			+ "       Main archive [--threads <n>] <archive>");
+	}
+}
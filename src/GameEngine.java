@@ -0,0 +1,353 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Swing-free game engine. Owns the board, the positions of the players, the dice and the rules of a turn,
+ * so games can be played without any GUI. {@link SelkiesGui} only subscribes as a {@link GameListener}
+ * and mirrors the changes on its components.
+ * <p>
+ * The state is kept in primitive arrays indexed by seat (serial number - 1). The engine is not thread safe,
+ * every instance has to be confined to one thread.
+ */
+public class GameEngine {
+
+	public static final int DEFAULT_CELL_COUNT = 100;
+
+	public static final int DICE_SIDES = 6;
+
+	private static final GameListener[] NO_LISTENERS = new GameListener[0];
+
+	private final int cellCount;
+
+	private final int lastCell;
+
+	private final RandomGenerator random;
+
+	private GameListener[] listeners = NO_LISTENERS;
+
+	private BoardIndex board;
+
+	private int[] positions = new int[0];
+
+	private int[] steps = new int[0];
+
+	private int playerCount;
+
+	private int currentSeat;
+
+	private int winner = -1;
+
+	private long turn;
+
+	/**
+	 * Constructs an engine for the default board of 100 cells.
+	 */
+	public GameEngine() {
+		this(DEFAULT_CELL_COUNT, new SplittableRandom());
+	}
+
+	/**
+	 * Constructs an engine for a board with the specified number of cells.
+	 *
+	 * @param cellCount The number of cells on the board.
+	 * @param random    The generator used for the dice.
+	 */
+	public GameEngine(final int cellCount, final RandomGenerator random) {
+		if (cellCount < 2) {
+			throw new IllegalArgumentException("Board needs at least 2 cells, got " + cellCount);
+		}
+		this.cellCount = cellCount;
+		this.lastCell = cellCount - 1;
+		this.random = random;
+		this.board = BoardIndex.empty(cellCount);
+	}
+
+	/**
+	 * Constructs an engine playing on a compiled board.
+	 *
+	 * @param board  The compiled board with obstacles.
+	 * @param random The generator used for the dice.
+	 */
+	public GameEngine(final BoardIndex board, final RandomGenerator random) {
+		this(board.getCellCount(), random);
+		this.board = board;
+	}
+
+	/**
+	 * Subscribes a listener to the changes of the game.
+	 *
+	 * @param listener The listener to be added.
+	 */
+	public void addGameListener(final GameListener listener) {
+		listeners = Arrays.copyOf(listeners, listeners.length + 1);
+		listeners[listeners.length - 1] = listener;
+	}
+
+	/**
+	 * Unsubscribes a listener.
+	 *
+	 * @param listener The listener to be removed.
+	 */
+	public void removeGameListener(final GameListener listener) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener) {
+				GameListener[] res = new GameListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, res, 0, i);
+				System.arraycopy(listeners, i + 1, res, i, res.length - i);
+				listeners = res;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Starts a new game, all players are placed on the first cell and seat 0 has the first turn.
+	 * Obstacles are kept.
+	 *
+	 * @param playerCount The number of players.
+	 */
+	public void newGame(final int playerCount) {
+		if (playerCount < 1) {
+			throw new IllegalArgumentException("At least one player is needed, got " + playerCount);
+		}
+		if (positions.length < playerCount) {
+			positions = new int[playerCount];
+			steps = new int[playerCount];
+		} else {
+			Arrays.fill(positions, 0);
+			Arrays.fill(steps, 0);
+		}
+		this.playerCount = playerCount;
+		this.currentSeat = 0;
+		this.winner = -1;
+		this.turn = 0;
+	}
+
+	/**
+	 * Restores the state of one player, used when a saved game is loaded.
+	 *
+	 * @param seat     The seat of the player.
+	 * @param position The cell of the player.
+	 * @param steps    The count of steps made by the player.
+	 */
+	public void restorePlayer(final int seat, final int position, final int steps) {
+		checkSeat(seat);
+		checkCell(position);
+		this.positions[seat] = position;
+		this.steps[seat] = steps;
+		if (position == lastCell) {
+			winner = seat;
+		}
+	}
+
+	/**
+	 * Sets the seat which has to roll the dice next, used when a saved game is loaded.
+	 *
+	 * @param seat The seat of the current player.
+	 */
+	public void setCurrentSeat(final int seat) {
+		checkSeat(seat);
+		this.currentSeat = seat;
+	}
+
+	/**
+	 * Sets the compiled board, a player landing on the start of an obstacle is moved to its final cell.
+	 *
+	 * @param board The compiled board, it has to have the same number of cells as the engine.
+	 */
+	public void setBoard(final BoardIndex board) {
+		if (board.getCellCount() != cellCount) {
+			throw new IllegalArgumentException(
+				"Board with %d cells does not fit engine with %d cells".formatted(board.getCellCount(), cellCount)
+			);
+		}
+		this.board = board;
+	}
+
+	/**
+	 * Gets the compiled board.
+	 *
+	 * @return The board the engine is playing on.
+	 */
+	public BoardIndex getBoard() {
+		return board;
+	}
+
+	/**
+	 * Rolls the dice of the engine.
+	 *
+	 * @return Value from 1 to {@link #DICE_SIDES}.
+	 */
+	public int rollDice() {
+		return random.nextInt(DICE_SIDES) + 1;
+	}
+
+	/**
+	 * Rolls the dice and plays the turn of the current player.
+	 *
+	 * @return The cell where the player finished the turn.
+	 */
+	public int playTurn() {
+		return playTurn(rollDice());
+	}
+
+	/**
+	 * Plays the turn of the current player with the specified dice value. The player is moved forward,
+	 * bounced back from the last cell if the move is too long, then moved by an obstacle if there is one.
+	 * If the player reaches the last cell the game is finished, otherwise the turn passes to the next seat.
+	 *
+	 * @param dice The value of the dice.
+	 * @return The cell where the player finished the turn.
+	 */
+	public int playTurn(final int dice) {
+		if (playerCount == 0) {
+			throw new IllegalStateException("Game is not started");
+		}
+		if (winner >= 0) {
+			throw new IllegalStateException("Game is finished");
+		}
+		final int seat = currentSeat;
+		final int from = positions[seat];
+		final int to = bounce(from + dice, lastCell);
+		positions[seat] = to;
+		steps[seat]++;
+		for (GameListener listener : listeners) {
+			listener.playerMoved(seat, from, to);
+		}
+
+		final int destination = board.destination(to);
+		if (destination != to) {
+			positions[seat] = destination;
+			steps[seat]++;
+			for (GameListener listener : listeners) {
+				listener.obstacleTriggered(seat, to, destination);
+			}
+		}
+
+		turn++;
+		if (destination == lastCell) {
+			winner = seat;
+			for (GameListener listener : listeners) {
+				listener.gameWon(seat);
+			}
+		} else {
+			currentSeat = seat + 1 == playerCount ? 0 : seat + 1;
+			for (GameListener listener : listeners) {
+				listener.turnChanged(currentSeat);
+			}
+		}
+		return destination;
+	}
+
+	/**
+	 * Adjusts the position if it exceeds the last cell, the rest of the move is made backward.
+	 *
+	 * @param position The position after the move.
+	 * @param lastCell The last cell of the board.
+	 * @return The position inside the board.
+	 */
+	static int bounce(int position, final int lastCell) {
+		while (position > lastCell || position < 0) {
+			position = position > lastCell ? lastCell - (position - lastCell) : -position;
+		}
+		return position;
+	}
+
+	private void checkSeat(final int seat) {
+		if (seat < 0 || seat >= playerCount) {
+			throw new IndexOutOfBoundsException("Seat " + seat + " out of " + playerCount + " players");
+		}
+	}
+
+	private void checkCell(final int cell) {
+		if (cell < 0 || cell > lastCell) {
+			throw new IndexOutOfBoundsException("Cell " + cell + " out of board with " + cellCount + " cells");
+		}
+	}
+
+	/**
+	 * Gets the number of cells on the board.
+	 *
+	 * @return The number of cells.
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Gets the last cell of the board, reaching it wins the game.
+	 *
+	 * @return The index of the last cell.
+	 */
+	public int getLastCell() {
+		return lastCell;
+	}
+
+	/**
+	 * Gets the number of players in the current game.
+	 *
+	 * @return The number of players.
+	 */
+	public int getPlayerCount() {
+		return playerCount;
+	}
+
+	/**
+	 * Gets the cell of the player of the seat.
+	 *
+	 * @param seat The seat of the player.
+	 * @return The cell of the player.
+	 */
+	public int getPosition(final int seat) {
+		checkSeat(seat);
+		return positions[seat];
+	}
+
+	/**
+	 * Gets the count of steps made by the player of the seat, a move by an obstacle counts as a step.
+	 *
+	 * @param seat The seat of the player.
+	 * @return The count of steps.
+	 */
+	public int getSteps(final int seat) {
+		checkSeat(seat);
+		return steps[seat];
+	}
+
+	/**
+	 * Gets the seat which has to roll the dice next.
+	 *
+	 * @return The current seat.
+	 */
+	public int getCurrentSeat() {
+		return currentSeat;
+	}
+
+	/**
+	 * Checks if some player has reached the last cell.
+	 *
+	 * @return True if the game is finished, false otherwise.
+	 */
+	public boolean isFinished() {
+		return winner >= 0;
+	}
+
+	/**
+	 * Gets the seat of the winner.
+	 *
+	 * @return The seat of the winner, or -1 if the game is not finished.
+	 */
+	public int getWinner() {
+		return winner;
+	}
+
+	/**
+	 * Gets the number of turns played in the current game.
+	 *
+	 * @return The number of turns.
+	 */
+	public long getTurn() {
+		return turn;
+	}
+}
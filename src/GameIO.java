@@ -0,0 +1,264 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Saving and loading of games on a background thread, the Event Dispatch Thread only starts them and gets
+ * a future. The operations run one after another on a single I/O thread, a save and a following load of the
+ * same file can't overtake each other.
+ * <p>
+ * A file is never written in place: the game goes into a temporary file next to the target, which is synced
+ * and then atomically renamed over it, the directory is synced after the rename, so a crash leaves either the old
+ * or the new file. The new file gets the permissions of the old one, or the default ones. The progress, from 0 to 1,
+ * is reported on the I/O thread.
+ */
+public final class GameIO {
+
+	private static final int CHUNK = 64 * 1024;
+
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "game-io");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private GameIO() {
+	}
+
+	/**
+	 * Saves a game in the background. The game is encoded on the calling thread, so the players and obstacles
+	 * may change as soon as the method returns.
+	 *
+	 * @param save     The game.
+	 * @param file     The target file, replaced atomically.
+	 * @param progress Receives the written fraction.
+	 * @return The future of the written file.
+	 */
+	public static CompletableFuture<Path> save(final Save save, final Path file, final DoubleConsumer progress) {
+		final byte[] bytes;
+		try {
+			bytes = save.toBytes();
+		} catch (IOException | RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				writeAtomically(file, bytes, progress);
+				return file;
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		}, EXECUTOR);
+	}
+
+	/**
+	 * Appends a game to a save library in the background, the library syncs it and may grow its index. The game
+	 * is copied on the calling thread, so the players and obstacles may change as soon as the method returns.
+	 *
+	 * @param library  The library.
+	 * @param save     The game.
+	 * @param progress Receives 1 when the game is written.
+	 * @return The future of the slot of the game.
+	 */
+	public static CompletableFuture<Integer> append(final SaveLibrary library, final Save save,
+													final DoubleConsumer progress) {
+		final Save copy;
+		try {
+			copy = SaveCodec.read(new ByteArrayInputStream(save.toBytes()));
+		} catch (IOException | RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				int slot = library.append(copy);
+				progress.accept(1);
+				return slot;
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		}, EXECUTOR);
+	}
+
+	/**
+	 * Appends bytes to a file in the background and syncs it, the file is created if it is missing.
+	 *
+	 * @param file  The file.
+	 * @param bytes The bytes, not changed any more by the caller.
+	 * @return The future of the completed append.
+	 */
+	public static CompletableFuture<Void> appendToFile(final Path file, final byte[] bytes) {
+		return CompletableFuture.runAsync(() -> {
+			try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+				ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				while (buffer.hasRemaining()) {
+					out.write(buffer);
+				}
+				out.force(false);
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		}, EXECUTOR);
+	}
+
+	/**
+	 * Loads a game in the background, in the compact or in the serialized format.
+	 *
+	 * @param file     The saved game.
+	 * @param progress Receives the read fraction.
+	 * @return The future of the game.
+	 */
+	public static CompletableFuture<Save> load(final Path file, final DoubleConsumer progress) {
+		return CompletableFuture.supplyAsync(() -> {
+			try (InputStream in = new BufferedInputStream(
+				new ProgressInputStream(Files.newInputStream(file), Files.size(file), progress))
+			) {
+				Save save = Save.read(in, file.toString());
+				progress.accept(1);
+				return save;
+			} catch (IOException | ClassNotFoundException e) {
+				throw new CompletionException(e);
+			}
+		}, EXECUTOR);
+	}
+
+	/**
+	 * Writes a file through a synced temporary file renamed over the target. The permissions of an existing
+	 * target are kept, a new file is created with the default permissions of the process.
+	 *
+	 * @param file     The target file.
+	 * @param bytes    The content.
+	 * @param progress Receives the written fraction, may be null.
+	 * @throws IOException if the file can't be written, the target is unchanged then.
+	 */
+	public static void writeAtomically(final Path file, final byte[] bytes, final DoubleConsumer progress)
+		throws IOException {
+		Path target = file.toAbsolutePath();
+		Path temp = createTemp(target);
+		try {
+			keepPermissions(target, temp);
+			try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				while (buffer.hasRemaining()) {
+					buffer.limit(Math.min(buffer.position() + CHUNK, bytes.length));
+					out.write(buffer);
+					buffer.limit(bytes.length);
+					if (progress != null) {
+						progress.accept((double) buffer.position() / bytes.length);
+					}
+				}
+				out.force(true);
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			syncDirectory(target.getParent());
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Creates an empty temporary file next to the target. Unlike {@link Files#createTempFile} it is created with
+	 * the default permissions, not readable by the owner only.
+	 */
+	private static Path createTemp(final Path target) throws IOException {
+		while (true) {
+			Path temp = target.resolveSibling(
+				"%s.%x.tmp".formatted(target.getFileName(), ThreadLocalRandom.current().nextLong() >>> 1));
+			try {
+				FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+				return temp;
+			} catch (FileAlreadyExistsException e) {
+				// taken, try another name
+			}
+		}
+	}
+
+	/**
+	 * Gives the temporary file the permissions of the target it replaces, where the file system has them.
+	 */
+	private static void keepPermissions(final Path target, final Path temp) throws IOException {
+		PosixFileAttributeView view = Files.getFileAttributeView(temp, PosixFileAttributeView.class);
+		if (view != null && Files.exists(target)) {
+			view.setPermissions(Files.getPosixFilePermissions(target));
+		}
+	}
+
+	/**
+	 * Syncs a directory, so the rename in it is on the disk. Some platforms can't open a directory, there the
+	 * rename is as durable as the file system makes it.
+	 */
+	static void syncDirectory(final Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// not supported, for example on Windows
+		}
+	}
+
+	/**
+	 * Reports the read fraction of a file, at most once per percent.
+	 */
+	private static final class ProgressInputStream extends FilterInputStream {
+
+		private final long size;
+
+		private final DoubleConsumer progress;
+
+		private long read;
+
+		private long reported;
+
+		private ProgressInputStream(final InputStream in, final long size, final DoubleConsumer progress) {
+			super(in);
+			this.size = Math.max(size, 1);
+			this.progress = progress;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				advance(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				advance(n);
+			}
+			return n;
+		}
+
+		private void advance(final long n) {
+			read += n;
+			long percent = read * 100 / size;
+			if (percent > reported) {
+				reported = percent;
+				progress.accept(Math.min(1, (double) read / size));
+			}
+		}
+	}
+}
@@ -0,0 +1,44 @@
+/**
+ * Receives the changes made by a {@link GameEngine} while a turn is played.
+ * Seats are zero based, seat {@code n} belongs to the player with serial number {@code n + 1}.
+ * All methods have empty defaults, so a listener only overrides what it needs.
+ */
+public interface GameListener {
+
+	/**
+	 * Called when the player of the seat has been moved by the dice.
+	 *
+	 * @param seat The seat of the moved player.
+	 * @param from The cell the player left.
+	 * @param to   The cell the player arrived at.
+	 */
+	default void playerMoved(int seat, int from, int to) {
+	}
+
+	/**
+	 * Called when the player of the seat has been moved by an obstacle (Munro or Selkie).
+	 * Chained obstacles are reported once, with the cell where the chain ends.
+	 *
+	 * @param seat The seat of the moved player.
+	 * @param from The cell where the first obstacle starts.
+	 * @param to   The cell the player finally arrived at.
+	 */
+	default void obstacleTriggered(int seat, int from, int to) {
+	}
+
+	/**
+	 * Called when the turn passes to the player of the seat.
+	 *
+	 * @param seat The seat which has to roll the dice next.
+	 */
+	default void turnChanged(int seat) {
+	}
+
+	/**
+	 * Called when the player of the seat reaches the last cell.
+	 *
+	 * @param seat The seat of the winner.
+	 */
+	default void gameWon(int seat) {
+	}
+}
@@ -0,0 +1,250 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The game loop: one thread owns the {@link GameEngine} and executes the commands sent to it, in the order
+ * they were sent. The callers never touch the engine, a command returns at once with a future of the state
+ * after it.
+ * <p>
+ * After every command the loop publishes one message through the publisher: the events of the command are
+ * passed to the {@link GameListener}s, then the new {@link GameState} to the state listeners, then the future
+ * is completed, exceptionally if the command or a listener threw. With {@code SwingUtilities::invokeLater} as
+ * the publisher all of it happens on the Event Dispatch Thread, so the listeners may update components and a
+ * dialog there does not stop the game logic. With
+ * {@code Runnable::run} the loop runs headless at full speed, the listeners are called on its own thread.
+ */
+public class GameLoop {
+
+	private final GameEngine engine;
+
+	private final Executor publisher;
+
+	private final LinkedBlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+
+	private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+
+	private final List<Consumer<GameState>> stateListeners = new CopyOnWriteArrayList<>();
+
+	private final Thread thread;
+
+	// events of the running command, on the loop thread
+	private final List<Consumer<GameListener>> events = new ArrayList<>();
+
+	private volatile GameState state;
+
+	private volatile boolean running = true;
+
+	/**
+	 * Starts the loop on its own daemon thread.
+	 *
+	 * @param engine    The engine, from now on used only by the loop.
+	 * @param publisher Runs the messages of the loop, {@code SwingUtilities::invokeLater} for a GUI.
+	 */
+	public GameLoop(final GameEngine engine, final Executor publisher) {
+		this.engine = engine;
+		this.publisher = publisher;
+		this.state = GameState.of(engine);
+		engine.addGameListener(new GameListener() {
+			@Override
+			public void playerMoved(int seat, int from, int to) {
+				events.add(l -> l.playerMoved(seat, from, to));
+			}
+
+			@Override
+			public void obstacleTriggered(int seat, int from, int to) {
+				events.add(l -> l.obstacleTriggered(seat, from, to));
+			}
+
+			@Override
+			public void turnChanged(int seat) {
+				events.add(l -> l.turnChanged(seat));
+			}
+
+			@Override
+			public void gameWon(int seat) {
+				events.add(l -> l.gameWon(seat));
+			}
+		});
+		this.thread = new Thread(this::run, "game-loop");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Subscribes a listener to the events of the game, called by the publisher.
+	 *
+	 * @param listener The listener.
+	 */
+	public void addGameListener(final GameListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Subscribes a listener to the states published after the commands, called by the publisher.
+	 *
+	 * @param listener The listener.
+	 */
+	public void addStateListener(final Consumer<GameState> listener) {
+		stateListeners.add(listener);
+	}
+
+	/**
+	 * Gets the state of the last published message.
+	 *
+	 * @return The state.
+	 */
+	public GameState getState() {
+		return state;
+	}
+
+	/**
+	 * Starts a new game, see {@link GameEngine#newGame(int)}.
+	 *
+	 * @param playerCount The number of players.
+	 * @return The future of the state after the command.
+	 */
+	public CompletableFuture<GameState> newGame(final int playerCount) {
+		return send(engine -> {
+			engine.newGame(playerCount);
+			return null;
+		});
+	}
+
+	/**
+	 * Sets the compiled board, see {@link GameEngine#setBoard(BoardIndex)}.
+	 *
+	 * @param board The board.
+	 * @return The future of the state after the command.
+	 */
+	public CompletableFuture<GameState> setBoard(final BoardIndex board) {
+		return send(engine -> {
+			engine.setBoard(board);
+			return null;
+		});
+	}
+
+	/**
+	 * Restores a saved game: a new game with the players on their cells and the seat of the next turn.
+	 *
+	 * @param positions   The cells of the players by seat.
+	 * @param steps       The counts of steps by seat.
+	 * @param currentSeat The seat which rolls next.
+	 * @param board       The compiled board of the game.
+	 * @return The future of the state after the command.
+	 */
+	public CompletableFuture<GameState> restore(final int[] positions, final int[] steps, final int currentSeat,
+												final BoardIndex board) {
+		int[] cells = positions.clone();
+		int[] counts = steps.clone();
+		return send(engine -> {
+			engine.newGame(cells.length);
+			for (int seat = 0; seat < cells.length; seat++) {
+				engine.restorePlayer(seat, cells[seat], counts[seat]);
+			}
+			engine.setCurrentSeat(currentSeat);
+			engine.setBoard(board);
+			return null;
+		});
+	}
+
+	/**
+	 * Plays the turn of the current player, see {@link GameEngine#playTurn(int)}.
+	 *
+	 * @param dice The value of the dice.
+	 * @return The future of the state after the turn.
+	 */
+	public CompletableFuture<GameState> playTurn(final int dice) {
+		return send(engine -> engine.playTurn(dice));
+	}
+
+	/**
+	 * Plays with the dice of the engine until the game is finished, as one command with one message.
+	 *
+	 * @param maxTurns The number of turns after which the game is left unfinished.
+	 * @return The future of the state after the game.
+	 */
+	public CompletableFuture<GameState> playGame(final int maxTurns) {
+		return send(engine -> {
+			for (int turn = 0; turn < maxTurns && !engine.isFinished(); turn++) {
+				engine.playTurn();
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Stops the loop after the commands sent so far.
+	 */
+	public void shutdown() {
+		commands.add(() -> running = false);
+	}
+
+	/**
+	 * Queues a command, its events and the state after it are published when it is done.
+	 */
+	private CompletableFuture<GameState> send(final Function<GameEngine, ?> command) {
+		CompletableFuture<GameState> future = new CompletableFuture<>();
+		commands.add(() -> {
+			events.clear();
+			RuntimeException failure = null;
+			try {
+				command.apply(engine);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			publish(List.copyOf(events), GameState.of(engine), failure, future);
+		});
+		return future;
+	}
+
+	private void publish(final List<Consumer<GameListener>> published, final GameState next,
+						 final RuntimeException failure, final CompletableFuture<GameState> future) {
+		publisher.execute(() -> {
+			Throwable thrown = failure;
+			try {
+				state = next;
+				for (Consumer<GameListener> event : published) {
+					for (GameListener listener : listeners) {
+						event.accept(listener);
+					}
+				}
+				for (Consumer<GameState> listener : stateListeners) {
+					listener.accept(next);
+				}
+			} catch (RuntimeException | Error e) {
+				// passed on to the publisher as well, for its handler of uncaught exceptions
+				if (thrown == null) {
+					thrown = e;
+				} else {
+					thrown.addSuppressed(e);
+				}
+				throw e;
+			} finally {
+				// whoever waits for the command is never left waiting
+				if (thrown != null) {
+					future.completeExceptionally(thrown);
+				} else {
+					future.complete(next);
+				}
+			}
+		});
+	}
+
+	private void run() {
+		while (running) {
+			try {
+				commands.take().run();
+			} catch (InterruptedException e) {
+				return;
+			} catch (RuntimeException e) {
+				// a listener called by a direct publisher threw, the future of the command holds it
+			}
+		}
+	}
+}
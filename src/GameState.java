@@ -0,0 +1,133 @@
+import java.util.Arrays;
+
+/**
+ * Immutable copy of the state of a {@link GameEngine}, published by the {@link GameLoop} after every command.
+ * It can be read on any thread while the engine plays on.
+ */
+public final class GameState {
+
+	private final BoardIndex board;
+
+	private final int[] positions;
+
+	private final int[] steps;
+
+	private final int currentSeat;
+
+	private final int winner;
+
+	private final long turn;
+
+	private GameState(final GameEngine engine) {
+		this.board = engine.getBoard();
+		int playerCount = engine.getPlayerCount();
+		this.positions = new int[playerCount];
+		this.steps = new int[playerCount];
+		for (int seat = 0; seat < playerCount; seat++) {
+			positions[seat] = engine.getPosition(seat);
+			steps[seat] = engine.getSteps(seat);
+		}
+		this.currentSeat = engine.getCurrentSeat();
+		this.winner = engine.getWinner();
+		this.turn = engine.getTurn();
+	}
+
+	/**
+	 * Copies the state of an engine, on the thread owning the engine.
+	 *
+	 * @param engine The engine.
+	 * @return The state.
+	 */
+	static GameState of(final GameEngine engine) {
+		return new GameState(engine);
+	}
+
+	/**
+	 * Gets the compiled board.
+	 *
+	 * @return The board the game is played on.
+	 */
+	public BoardIndex getBoard() {
+		return board;
+	}
+
+	/**
+	 * Gets the last cell of the board, reaching it wins the game.
+	 *
+	 * @return The index of the last cell.
+	 */
+	public int getLastCell() {
+		return board.getCellCount() - 1;
+	}
+
+	/**
+	 * Gets the number of players.
+	 *
+	 * @return The number of players, 0 before the first game.
+	 */
+	public int getPlayerCount() {
+		return positions.length;
+	}
+
+	/**
+	 * Gets the cell of the player of the seat.
+	 *
+	 * @param seat The seat of the player.
+	 * @return The cell of the player.
+	 */
+	public int getPosition(final int seat) {
+		return positions[seat];
+	}
+
+	/**
+	 * Gets the count of steps made by the player of the seat.
+	 *
+	 * @param seat The seat of the player.
+	 * @return The count of steps.
+	 */
+	public int getSteps(final int seat) {
+		return steps[seat];
+	}
+
+	/**
+	 * Gets the seat which has to roll the dice next.
+	 *
+	 * @return The current seat.
+	 */
+	public int getCurrentSeat() {
+		return currentSeat;
+	}
+
+	/**
+	 * Checks if some player has reached the last cell.
+	 *
+	 * @return True if the game is finished.
+	 */
+	public boolean isFinished() {
+		return winner >= 0;
+	}
+
+	/**
+	 * Gets the seat of the winner.
+	 *
+	 * @return The seat of the winner, or -1 if the game is not finished.
+	 */
+	public int getWinner() {
+		return winner;
+	}
+
+	/**
+	 * Gets the number of turns played in the game.
+	 *
+	 * @return The number of turns.
+	 */
+	public long getTurn() {
+		return turn;
+	}
+
+	@Override
+	public String toString() {
+		return "GameState[turn=%d, seat=%d, winner=%d, positions=%s, steps=%s]".formatted(
+			turn, currentSeat, winner, Arrays.toString(positions), Arrays.toString(steps));
+	}
+}
@@ -2,7 +2,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @Author _se.ho
@@ -10,7 +9,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  **/
 public class JButtonField extends JButton {
 
-	private List<Player> playerList = new ArrayList<>();
+	// Created with the first player, most cells of a large board never hold one
+	private List<Player> playerList;
 
 	private int position;
 
@@ -24,7 +24,7 @@ public class JButtonField extends JButton {
 		super("%d".formatted(position + 1));
 		this.position = position;
 		// Temporarily filling, for view as paint pictograms
-		playerList.addAll(list);
+		playerList = new ArrayList<>(list);
 	}
 
 	/**
@@ -44,37 +44,28 @@ public class JButtonField extends JButton {
 	 */
 	@Override
 	protected void paintComponent(final Graphics g) {
-		super.paintComponent(g);
-		if (playerList.isEmpty()) {
-			return;
+		final long paintStart = PaintMetrics.start();
+		try {
+			super.paintComponent(g);
+			if (playerList == null || playerList.isEmpty()) {
+				return;
+			}
+			// pictograms are placed on a circle, starting at the top
+			int vertexCount = playerList.size();
+			int r = Math.min(getHeight(), getWidth()) / 2 - 10;
+			double addAngle = 2 * Math.PI / vertexCount;
+			double angle = Math.PI / -2;
+			for (int i = 0; i < vertexCount; i++) {
+				playerList.get(i).paint(
+					(int) Math.round(r * Math.cos(angle)) + getWidth() / 2,
+					(int) Math.round(r * Math.sin(angle)) + getHeight() / 2,
+					g
+				);
+				angle += addAngle;
+			}
+		} finally {
+			PaintMetrics.record(PaintMetrics.Section.BUTTON_FIELD, paintStart);
 		}
-		Point[] points = getPointsForDrawShape();
-		AtomicInteger i = new AtomicInteger(0);
-		playerList.forEach(p -> p.paint(points[i.getAndIncrement()], g));
-	}
-
-	/**
-	 * function calculated point with placing Player pictogram
-	 *
-	 * @return array {@link Point}
-	 */
-	private Point[] getPointsForDrawShape() {
-		if (playerList.isEmpty()) {
-			return null;
-		}
-		int vertexCount = playerList.size();
-		int r = Math.min(getHeight(), getWidth()) / 2 - 10;
-		Point[] res = new Point[vertexCount];
-		double addAngle = 2 * Math.PI / vertexCount;
-		double angle = Math.PI / -2;
-		for (int i = 0; i < vertexCount; i++) {
-			res[i] = new Point(
-				(int) Math.round(r * Math.cos(angle)) + getWidth() / 2,
-				(int) Math.round(r * Math.sin(angle)) + getHeight() / 2
-			);
-			angle += addAngle;
-		}
-		return res;
 	}
 
 	/**
@@ -92,6 +83,9 @@ public class JButtonField extends JButton {
 	 * @param player The player to be added.
 	 */
 	public void addPlayer(Player player) {
+		if (playerList == null) {
+			playerList = new ArrayList<>(2);
+		}
 		playerList.add(player);
 		repaint();
 	}
@@ -102,7 +96,9 @@ public class JButtonField extends JButton {
 	 * @param player The player to be removed.
 	 */
 	public void removePlayer(Player player) {
-		playerList.remove(player);
+		if (playerList != null) {
+			playerList.remove(player);
+		}
 		repaint();
 	}
 
@@ -110,7 +106,7 @@ public class JButtonField extends JButton {
 	 * Prepares the field for a new game by clearing the player list.
 	 */
 	public void prepareNewGame() {
-		playerList.clear();
+		playerList = null;
 		repaint();
 	}
 }
\ No newline at end of file
@@ -1,3 +1,6 @@
+import javax.swing.*;
+import java.util.Arrays;
+
 /**
  * Main class to launch the application.
  */
@@ -5,9 +8,30 @@ public class Main {
 	/**
 	 * Main method to start the application.
 	 *
-	 * @param args Command line arguments (not used in this application).
+	 * @param args Command line arguments: none to start the game,
+	 *             {@code thumbnails ...} to render saved games to PNG without a display, see {@link ThumbnailRenderer},
+	 *             {@code archive ...} to write or check an archive of games, see {@link GameArchive},
+	 *             {@code simulate ...} or {@code export ...} to stream results as NDJSON or CSV,
+	 *             see {@link ResultExport}.
 	 */
-	public static void main(String[] args) {
-		SelkiesGui.createAndShowGUI();
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && args[0].equals("thumbnails")) {
+			// has to be set before the first use of AWT
+			System.setProperty("java.awt.headless", "true");
+			ThumbnailRenderer.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		if (args.length > 0 && args[0].equals("archive")) {
+			GameArchive.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		if (args.length > 0 && (args[0].equals("simulate") || args[0].equals("export"))) {
+			ResultExport.main(args);
+			return;
+		}
+		StartupTimer.mark("main");
+		DiceRoll.preload();
+		SelkiesGui.warmUp();
+		SwingUtilities.invokeLater(SelkiesGui::createAndShowGUI);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+/**
+ * Exact result of {@link MarkovSolver#solve(int, int)}: the distribution of the game length in turns
+ * up to the horizon and the probability of every seat to win within it.
+ */
+public class MarkovSolution {
+
+	private final double expectedMoves;
+
+	private final double[] gameLength;
+
+	private final double[] winProbability;
+
+	/**
+	 * Constructs a solution.
+	 *
+	 * @param expectedMoves  The expected number of moves of one player to finish.
+	 * @param gameLength     The probability of the game to end exactly on each turn.
+	 * @param winProbability The probability of each seat to win within the horizon.
+	 */
+	MarkovSolution(final double expectedMoves, final double[] gameLength, final double[] winProbability) {
+		this.expectedMoves = expectedMoves;
+		this.gameLength = gameLength;
+		this.winProbability = winProbability;
+	}
+
+	/**
+	 * Gets the expected number of moves of one player alone from the first cell to the last one.
+	 *
+	 * @return The expected number of moves, infinity if a player can be trapped.
+	 */
+	public double getExpectedMoves() {
+		return expectedMoves;
+	}
+
+	/**
+	 * Gets the largest game length covered by the solution.
+	 *
+	 * @return The horizon in turns.
+	 */
+	public int getHorizon() {
+		return gameLength.length - 1;
+	}
+
+	/**
+	 * Gets the probability of the game to end exactly on the turn.
+	 *
+	 * @param turn The turn, from 0 to the horizon.
+	 * @return The probability.
+	 */
+	public double getProbability(final int turn) {
+		return gameLength[turn];
+	}
+
+	/**
+	 * Gets the probability of the game to end on the turn or before it.
+	 *
+	 * @param turn The turn, from 0 to the horizon.
+	 * @return The cumulative probability.
+	 */
+	public double getCumulativeProbability(final int turn) {
+		double sum = 0;
+		for (int t = 0; t <= turn; t++) {
+			sum += gameLength[t];
+		}
+		return sum;
+	}
+
+	/**
+	 * Gets the probability of the game to last longer than the horizon.
+	 *
+	 * @return The probability not covered by the distribution.
+	 */
+	public double getTailProbability() {
+		return Math.max(0.0, 1.0 - getCumulativeProbability(getHorizon()));
+	}
+
+	/**
+	 * Gets the expected game length in turns. Games longer than the horizon are counted as ending on
+	 * the horizon, so with a horizon well beyond {@link #getTailProbability()} being negligible it is exact.
+	 *
+	 * @return The expected number of turns.
+	 */
+	public double getExpectedLength() {
+		double sum = 0;
+		for (int t = 1; t < gameLength.length; t++) {
+			sum += t * gameLength[t];
+		}
+		return sum + getHorizon() * getTailProbability();
+	}
+
+	/**
+	 * Gets the probability of a seat to win within the horizon.
+	 *
+	 * @param serialNumber The serial number of the player (seat + 1).
+	 * @return The win probability.
+	 */
+	public double getWinProbability(final int serialNumber) {
+		return winProbability[serialNumber - 1];
+	}
+
+	/**
+	 * Gets the full distribution of the game length.
+	 *
+	 * @return Copy of the array where element {@code t} is the probability to end exactly on turn {@code t}.
+	 */
+	public double[] getDistribution() {
+		return gameLength.clone();
+	}
+}
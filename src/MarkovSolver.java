@@ -0,0 +1,244 @@
+import java.util.Arrays;
+
+/**
+ * Exact solver of a board as an absorbing Markov chain. Every cell is a state, the last cell is the
+ * absorbing one, and every state has {@link GameEngine#DICE_SIDES} equally likely transitions which
+ * follow the same rules as {@link GameEngine#playTurn(int)}: the bounce back from the last cell and the
+ * obstacles of the {@link BoardIndex}.
+ * <p>
+ * The transitions are kept in one primitive array and the equations are solved by Gauss-Seidel
+ * iteration, so a board of 100 cells is solved in microseconds.
+ */
+public class MarkovSolver {
+
+	public static final double DEFAULT_TOLERANCE = 1e-12;
+
+	private static final int MAX_ITERATIONS = 1_000_000;
+
+	private final int cellCount;
+
+	private final int lastCell;
+
+	/**
+	 * next[cell * DICE_SIDES + dice - 1] is the cell where a player on the cell finishes the turn.
+	 */
+	private final int[] next;
+
+	private final boolean finishable;
+
+	/**
+	 * Builds the transition table of the board.
+	 *
+	 * @param board The compiled board with obstacles.
+	 */
+	public MarkovSolver(final BoardIndex board) {
+		this.cellCount = board.getCellCount();
+		this.lastCell = cellCount - 1;
+		this.next = new int[cellCount * GameEngine.DICE_SIDES];
+		for (int cell = 0; cell < cellCount; cell++) {
+			for (int dice = 1; dice <= GameEngine.DICE_SIDES; dice++) {
+				next[cell * GameEngine.DICE_SIDES + dice - 1] =
+					cell == lastCell ? lastCell : board.destination(GameEngine.bounce(cell + dice, lastCell));
+			}
+		}
+		this.finishable = isFinishableFromStart();
+	}
+
+	/**
+	 * Checks that every cell reachable from the first one can still reach the last cell,
+	 * otherwise a player can be trapped forever and the expected length is infinite.
+	 *
+	 * @return True if a game finishes with probability 1.
+	 */
+	private boolean isFinishableFromStart() {
+		// cells from which the last cell can be reached, found backward from the last cell
+		boolean[] canFinish = new boolean[cellCount];
+		canFinish[lastCell] = true;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int cell = lastCell - 1; cell >= 0; cell--) {
+				if (canFinish[cell]) {
+					continue;
+				}
+				for (int d = 0; d < GameEngine.DICE_SIDES; d++) {
+					if (canFinish[next[cell * GameEngine.DICE_SIDES + d]]) {
+						canFinish[cell] = true;
+						changed = true;
+						break;
+					}
+				}
+			}
+		}
+		// walk forward from the first cell
+		boolean[] reached = new boolean[cellCount];
+		int[] queue = new int[cellCount];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = 0;
+		reached[0] = true;
+		while (head < tail) {
+			int cell = queue[head++];
+			if (!canFinish[cell]) {
+				return false;
+			}
+			if (cell == lastCell) {
+				continue;
+			}
+			for (int d = 0; d < GameEngine.DICE_SIDES; d++) {
+				int to = next[cell * GameEngine.DICE_SIDES + d];
+				if (!reached[to]) {
+					reached[to] = true;
+					queue[tail++] = to;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Calculates the expected number of moves of one player from the first cell to the last one.
+	 *
+	 * @return The expected number of moves, or infinity if the player can be trapped.
+	 */
+	public double expectedMoves() {
+		return expectedMoves(DEFAULT_TOLERANCE)[0];
+	}
+
+	/**
+	 * Calculates the expected number of moves of one player from every cell to the last one.
+	 *
+	 * @param tolerance The largest change of an expectation between two iterations to stop at.
+	 * @return The expected number of moves indexed by cell, filled with infinity if the player can be trapped.
+	 */
+	public double[] expectedMoves(final double tolerance) {
+		final double[] expected = new double[cellCount];
+		if (!finishable) {
+			Arrays.fill(expected, Double.POSITIVE_INFINITY);
+			return expected;
+		}
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			// sweep backward, most moves go forward so they use values of the current sweep,
+			// only the bounces and the Selkies wait for the next one
+			double delta = 0;
+			for (int cell = lastCell - 1; cell >= 0; cell--) {
+				delta = Math.max(delta, relax(expected, cell));
+			}
+			if (delta <= tolerance * Math.max(1.0, expected[0])) {
+				return expected;
+			}
+		}
+		throw new IllegalStateException("Expected moves did not converge in " + MAX_ITERATIONS + " iterations");
+	}
+
+	/**
+	 * Updates the expected number of moves of one cell from the values of the cells it leads to.
+	 *
+	 * @param expected The expected number of moves indexed by cell.
+	 * @param cell     The cell to update.
+	 * @return The absolute change of the value.
+	 */
+	private double relax(final double[] expected, final int cell) {
+		final int base = cell * GameEngine.DICE_SIDES;
+		double sum = 0;
+		int self = 0;
+		for (int d = 0; d < GameEngine.DICE_SIDES; d++) {
+			int to = next[base + d];
+			if (to == cell) {
+				self++;
+			} else {
+				sum += expected[to];
+			}
+		}
+		// E = 1 + (sum + self * E) / sides solved for E
+		double value = (GameEngine.DICE_SIDES + sum) / (GameEngine.DICE_SIDES - self);
+		double delta = Math.abs(value - expected[cell]);
+		expected[cell] = value;
+		return delta;
+	}
+
+	/**
+	 * Calculates the distribution of the number of moves of one player from the first cell to the last one.
+	 *
+	 * @param horizon The largest number of moves to calculate.
+	 * @return Array where element {@code m} is the probability to finish exactly with move {@code m}.
+	 */
+	public double[] moveDistribution(final int horizon) {
+		if (horizon < 0) {
+			throw new IllegalArgumentException("Horizon is negative: " + horizon);
+		}
+		final double p = 1.0 / GameEngine.DICE_SIDES;
+		final double[] pmf = new double[horizon + 1];
+		double[] current = new double[cellCount];
+		double[] following = new double[cellCount];
+		current[0] = 1.0;
+		for (int move = 1; move <= horizon; move++) {
+			Arrays.fill(following, 0.0);
+			for (int cell = 0; cell < lastCell; cell++) {
+				double mass = current[cell];
+				if (mass == 0.0) {
+					continue;
+				}
+				mass *= p;
+				int base = cell * GameEngine.DICE_SIDES;
+				for (int d = 0; d < GameEngine.DICE_SIDES; d++) {
+					following[next[base + d]] += mass;
+				}
+			}
+			pmf[move] = following[lastCell];
+			following[lastCell] = 0.0;
+			double[] swap = current;
+			current = following;
+			following = swap;
+		}
+		return pmf;
+	}
+
+	/**
+	 * Solves a game of several players. Players move independently, so the game ends with the first seat
+	 * which finishes: seat {@code k} wins in round {@code r} if it finishes with its move {@code r}, the seats
+	 * before it need more than {@code r} moves and the seats after it need more than {@code r - 1} moves.
+	 *
+	 * @param playerCount The number of players.
+	 * @param horizon     The largest game length in turns to calculate, one turn is one roll of the dice.
+	 * @return The solution with the distribution of the game length and the win probability by seat.
+	 */
+	public MarkovSolution solve(final int playerCount, final int horizon) {
+		if (playerCount < 1) {
+			throw new IllegalArgumentException("At least one player is needed, got " + playerCount);
+		}
+		final int rounds = (horizon + playerCount - 1) / playerCount;
+		final double[] moves = moveDistribution(rounds);
+		// survival[r] = probability to need more than r moves
+		final double[] survival = new double[rounds + 1];
+		survival[0] = 1.0;
+		for (int r = 1; r <= rounds; r++) {
+			survival[r] = Math.max(0.0, survival[r - 1] - moves[r]);
+		}
+		final double[] gameLength = new double[horizon + 1];
+		final double[] winProbability = new double[playerCount];
+		for (int r = 1; r <= rounds; r++) {
+			for (int seat = 0; seat < playerCount; seat++) {
+				int turn = (r - 1) * playerCount + seat + 1;
+				if (turn > horizon) {
+					break;
+				}
+				double probability = moves[r]
+					* Math.pow(survival[r], seat)
+					* Math.pow(survival[r - 1], playerCount - 1 - seat);
+				gameLength[turn] = probability;
+				winProbability[seat] += probability;
+			}
+		}
+		return new MarkovSolution(expectedMoves(), gameLength, winProbability);
+	}
+
+	/**
+	 * Checks if a game on the board finishes with probability 1.
+	 *
+	 * @return False if a player can get to a cell from which the last cell is unreachable.
+	 */
+	public boolean isFinishable() {
+		return finishable;
+	}
+}
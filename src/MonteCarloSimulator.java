@@ -0,0 +1,147 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays many complete games on one board in parallel and collects their statistics.
+ * The work is split with fork/join, every task gets its own {@link SplittableRandom} split from the
+ * parent one, so the result only depends on the seed and not on the scheduling of the threads.
+ */
+public class MonteCarloSimulator {
+
+	public static final int DEFAULT_MAX_TURNS = 10_000;
+
+	private static final long MIN_LEAF_GAMES = 1024;
+
+	private static final long MAX_LEAVES = 1024;
+
+	private final BoardIndex board;
+
+	private final int playerCount;
+
+	private final int maxTurns;
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructs a simulator using the common fork/join pool.
+	 *
+	 * @param board       The compiled board with obstacles.
+	 * @param playerCount The number of players in every game.
+	 */
+	public MonteCarloSimulator(final BoardIndex board, final int playerCount) {
+		this(board, playerCount, DEFAULT_MAX_TURNS, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a simulator.
+	 *
+	 * @param board       The compiled board with obstacles.
+	 * @param playerCount The number of players in every game.
+	 * @param maxTurns    The number of turns after which a game is abandoned.
+	 * @param pool        The pool running the games.
+	 */
+	public MonteCarloSimulator(
+		final BoardIndex board,
+		final int playerCount,
+		final int maxTurns,
+		final ForkJoinPool pool
+	) {
+		if (playerCount < 1) {
+			throw new IllegalArgumentException("At least one player is needed, got " + playerCount);
+		}
+		if (maxTurns < 1) {
+			throw new IllegalArgumentException("Max turns has to be positive, got " + maxTurns);
+		}
+		this.board = board;
+		this.playerCount = playerCount;
+		this.maxTurns = maxTurns;
+		this.pool = pool;
+	}
+
+	/**
+	 * Plays the games and collects their statistics.
+	 *
+	 * @param games The number of games to play.
+	 * @param seed  The seed of the dice, the same seed gives the same result.
+	 * @return The statistics of the games.
+	 */
+	public SimulationResult run(final long games, final long seed) {
+		if (games < 0) {
+			throw new IllegalArgumentException("Number of games is negative: " + games);
+		}
+		// the split does not depend on the pool, so the seed gives the same result on any machine
+		long leafGames = Math.max(MIN_LEAF_GAMES, games / MAX_LEAVES);
+		return pool.invoke(new GamesTask(games, leafGames, new SplittableRandom(seed)));
+	}
+
+	/**
+	 * Plays the games sequentially in the calling thread.
+	 *
+	 * @param games  The number of games to play.
+	 * @param random The generator of the dice.
+	 * @return The statistics of the games.
+	 */
+	private SimulationResult playGames(final long games, final SplittableRandom random) {
+		final SimulationResult result = new SimulationResult(playerCount, board.getObstacleCount(), maxTurns);
+		final GameEngine engine = new GameEngine(board, random);
+		engine.addGameListener(new GameListener() {
+			@Override
+			public void obstacleTriggered(int seat, int from, int to) {
+				// count every obstacle of a chain
+				int cell = from;
+				int obstacle;
+				while ((obstacle = board.obstacleAt(cell)) >= 0) {
+					result.recordTrigger(obstacle);
+					cell = board.getEnd(obstacle);
+				}
+			}
+		});
+		for (long game = 0; game < games; game++) {
+			engine.newGame(playerCount);
+			int turns = 0;
+			while (!engine.isFinished() && turns < maxTurns) {
+				engine.playTurn();
+				turns++;
+			}
+			if (engine.isFinished()) {
+				result.recordGame(turns, engine.getWinner());
+			} else {
+				result.recordUnfinished();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Splits the games in halves until a half is small enough to be played by one worker.
+	 */
+	private final class GamesTask extends RecursiveTask<SimulationResult> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long games;
+
+		private final long leafGames;
+
+		private final SplittableRandom random;
+
+		private GamesTask(final long games, final long leafGames, final SplittableRandom random) {
+			this.games = games;
+			this.leafGames = leafGames;
+			this.random = random;
+		}
+
+		@Override
+		protected SimulationResult compute() {
+			if (games <= leafGames) {
+				return playGames(games, random);
+			}
+			long half = games / 2;
+			GamesTask right = new GamesTask(games - half, leafGames, random.split());
+			GamesTask left = new GamesTask(half, leafGames, random);
+			right.fork();
+			return left.compute().merge(right.join());
+		}
+	}
+}
@@ -0,0 +1,443 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of the game, a crashed game is restored at the next start. Every turn is appended as
+ * a record of {@value #RECORD_SIZE} bytes: seat, dice, cell left, cell reached by the dice and final cell,
+ * with a CRC32. After {@value #COMPACT_EVERY} turns, and at every new or loaded game, the whole game is written
+ * as a snapshot in the format of {@link SaveCodec} and the journal starts again empty.
+ * <p>
+ * The files are written by a single background thread. The records queued while the previous {@code fsync} was
+ * running are written and synced together, one {@code fsync} per group, so the turns never wait for the disk.
+ * The snapshot and the journal carry a generation number, the records of a journal of an older generation than
+ * the snapshot are ignored. The recovery stops at the first torn or corrupted record.
+ * <p>
+ * The system property {@code selkies.journal} sets the directory of the journal, {@code true} for
+ * {@code .selkies/journal} in the home directory; without it there is no journal. Apart from the recovery
+ * before the first game, the methods must be called on the Event Dispatch Thread.
+ */
+public class MoveJournal implements GameListener {
+
+	public static final int RECORD_SIZE = 18;
+
+	public static final int COMPACT_EVERY = 256;
+
+	private static final int JOURNAL_MAGIC = 0x534C4B4A;
+
+	private static final int SNAPSHOT_MAGIC = 0x534C4B50;
+
+	private static final int VERSION = 1;
+
+	private static final int JOURNAL_HEADER_SIZE = 16;
+
+	private static final String JOURNAL_FILE = "moves.log";
+
+	private static final String SNAPSHOT_FILE = "snapshot.sav";
+
+	/**
+	 * A snapshot queued for the writer, with the generation it starts.
+	 */
+	private static final class Snapshot {
+
+		private final long generation;
+
+		private final byte[] game;
+
+		private Snapshot(final long generation, final byte[] game) {
+			this.generation = generation;
+			this.game = game;
+		}
+	}
+
+	/**
+	 * Receives the turns read back from a journal or a {@link TurnLog}.
+	 */
+	public interface ReplayListener {
+
+		/**
+		 * Called before the first turn of a game of a turn log.
+		 *
+		 * @param game The game in the state its log starts from.
+		 * @throws IOException if the listener fails, the replay stops.
+		 */
+		default void gameStarted(Save game) throws IOException {
+		}
+
+		/**
+		 * Called after a turn was applied to the game.
+		 *
+		 * @param game        The game, with the player moved.
+		 * @param seat        The seat of the player.
+		 * @param dice        The value of the dice.
+		 * @param from        The cell left.
+		 * @param to          The cell reached by the dice.
+		 * @param destination The final cell, after an obstacle.
+		 * @throws IOException if the listener fails, the replay stops.
+		 */
+		void turnReplayed(Save game, int seat, int dice, int from, int to, int destination) throws IOException;
+	}
+
+	/**
+	 * A request of the writer to complete the future once everything queued before is synced.
+	 */
+	private static final class Sync {
+
+		private final CompletableFuture<Void> done = new CompletableFuture<>();
+	}
+
+	private final Path directory;
+
+	private final Supplier<Save> game;
+
+	private final LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+
+	private final Thread writer;
+
+	private final CRC32 crc = new CRC32();
+
+	private FileChannel journal;
+
+	private boolean failed;
+
+	// State of the turn being played, on the Event Dispatch Thread
+	private long generation;
+
+	private int turnsSinceSnapshot;
+
+	private int dice;
+
+	private int seat = -1;
+
+	private int from;
+
+	private int to;
+
+	private int destination;
+
+	/**
+	 * Constructs the journal in a directory, nothing is written before the first {@link #compact()}.
+	 *
+	 * @param directory The directory of the snapshot and the journal, created if missing.
+	 * @param game      Supplies the current game for the snapshots.
+	 * @throws IOException if the directory can't be created.
+	 */
+	public MoveJournal(final Path directory, final Supplier<Save> game) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.game = game;
+		this.writer = new Thread(this::write, "move-journal");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Creates the journal configured by the system property {@code selkies.journal}.
+	 *
+	 * @param game Supplies the current game for the snapshots.
+	 * @return The journal, null if it is not configured or the directory can't be created.
+	 */
+	public static MoveJournal fromSystemProperties(final Supplier<Save> game) {
+		String path = System.getProperty("selkies.journal");
+		if (path == null || "false".equalsIgnoreCase(path)) {
+			return null;
+		}
+		try {
+			return new MoveJournal("true".equalsIgnoreCase(path)
+				? Paths.get(System.getProperty("user.home"), ".selkies", "journal")
+				: Paths.get(path), game);
+		} catch (IOException e) {
+			System.err.println("No move journal: " + e);
+			return null;
+		}
+	}
+
+	/**
+	 * Restores the game of the last snapshot and the turns journaled after it.
+	 *
+	 * @return The game, null if there is none or it was finished.
+	 * @throws IOException if the snapshot can't be read.
+	 */
+	public Save recover() throws IOException {
+		Snapshot snapshot = readSnapshot(directory);
+		if (snapshot == null) {
+			return null;
+		}
+		Save save = SaveCodec.read(new ByteArrayInputStream(snapshot.game));
+		generation = snapshot.generation;
+		int lastCell = save.getColumns() * save.getRows() - 1;
+		int replayed = replay(directory, snapshot.generation, save, null);
+		System.err.println("Recovered the game of generation %d, %d turns replayed".formatted(generation, replayed));
+		for (Player player : save.getPlayerList()) {
+			if (player.getPlayerPos() == lastCell) {
+				return null;
+			}
+		}
+		return save;
+	}
+
+	/**
+	 * Records the dice of the turn about to be played.
+	 *
+	 * @param dice The value of the dice.
+	 */
+	public void rolled(final int dice) {
+		this.dice = dice;
+	}
+
+	@Override
+	public void playerMoved(final int seat, final int from, final int to) {
+		this.seat = seat;
+		this.from = from;
+		this.to = to;
+		this.destination = to;
+	}
+
+	@Override
+	public void obstacleTriggered(final int seat, final int from, final int to) {
+		this.destination = to;
+	}
+
+	@Override
+	public void turnChanged(final int seat) {
+		turnPlayed();
+	}
+
+	@Override
+	public void gameWon(final int seat) {
+		turnPlayed();
+	}
+
+	/**
+	 * Replaces the journal by a snapshot of the current game, called at a new or a loaded game.
+	 */
+	public void compact() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try {
+			SaveCodec.write(game.get(), bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		turnsSinceSnapshot = 0;
+		queue.add(new Snapshot(++generation, bytes.toByteArray()));
+	}
+
+	/**
+	 * Waits until everything journaled so far is on the disk.
+	 *
+	 * @throws IOException if the journal can't be written.
+	 */
+	public void sync() throws IOException {
+		Sync sync = new Sync();
+		queue.add(sync);
+		try {
+			sync.done.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while syncing the journal", e);
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+		}
+	}
+
+	private void turnPlayed() {
+		if (seat < 0) {
+			return;
+		}
+		if (++turnsSinceSnapshot >= COMPACT_EVERY) {
+			// the snapshot holds this turn already
+			compact();
+		} else {
+			queue.add(record(crc, seat, dice, from, to, destination));
+		}
+		seat = -1;
+	}
+
+	/**
+	 * Encodes a turn as a record of {@value #RECORD_SIZE} bytes with its checksum.
+	 */
+	static byte[] record(final CRC32 crc, final int seat, final int dice, final int from, final int to,
+						 final int destination) {
+		ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+		record.put((byte) seat).put((byte) dice).putInt(from).putInt(to).putInt(destination);
+		crc.reset();
+		crc.update(record.array(), 0, RECORD_SIZE - 4);
+		record.putInt((int) crc.getValue());
+		return record.array();
+	}
+
+	/**
+	 * Reads the snapshot file of a directory, the game is left encoded.
+	 */
+	private static Snapshot readSnapshot(final Path directory) throws IOException {
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(directory.resolve(SNAPSHOT_FILE));
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+		ByteBuffer header = ByteBuffer.wrap(bytes);
+		if (bytes.length < 12 || header.getInt(0) != SNAPSHOT_MAGIC) {
+			throw new IOException("Not a snapshot: " + directory.resolve(SNAPSHOT_FILE));
+		}
+		return new Snapshot(header.getLong(4), Arrays.copyOfRange(bytes, 12, bytes.length));
+	}
+
+	/**
+	 * Applies the journaled turns to the game of the snapshot.
+	 */
+	private static int replay(final Path directory, final long snapshotGeneration, final Save save,
+							  final ReplayListener listener) throws IOException {
+		Path file = directory.resolve(JOURNAL_FILE);
+		if (!Files.exists(file)) {
+			return 0;
+		}
+		try (InputStream in = Files.newInputStream(file)) {
+			byte[] header = in.readNBytes(JOURNAL_HEADER_SIZE);
+			ByteBuffer h = ByteBuffer.wrap(header);
+			if (header.length < JOURNAL_HEADER_SIZE || h.getInt(0) != JOURNAL_MAGIC
+				|| h.getInt(4) != VERSION || h.getLong(8) != snapshotGeneration
+			) {
+				return 0;
+			}
+			return replayRecords(in, save, listener);
+		}
+	}
+
+	/**
+	 * Applies the records of a stream to a game, up to its end or the first torn or corrupted record.
+	 *
+	 * @param in       The records.
+	 * @param save     The game, its players are moved.
+	 * @param listener Receives every turn after it was applied, may be null.
+	 * @return The number of turns applied.
+	 * @throws IOException if the stream can't be read or the listener fails.
+	 */
+	static int replayRecords(final InputStream in, final Save save, final ReplayListener listener)
+		throws IOException {
+		int lastCell = save.getColumns() * save.getRows() - 1;
+		List<Player> players = save.getPlayerList();
+		CRC32 check = new CRC32();
+		int replayed = 0;
+		byte[] bytes = new byte[RECORD_SIZE];
+		while (in.readNBytes(bytes, 0, RECORD_SIZE) == RECORD_SIZE) {
+			check.reset();
+			check.update(bytes, 0, RECORD_SIZE - 4);
+			ByteBuffer record = ByteBuffer.wrap(bytes);
+			if (record.getInt(RECORD_SIZE - 4) != (int) check.getValue()) {
+				break;
+			}
+			int seat = record.get(0);
+			int dice = record.get(1);
+			int from = record.getInt(2);
+			int to = record.getInt(6);
+			int destination = record.getInt(10);
+			if (seat < 0 || seat >= players.size()) {
+				break;
+			}
+			for (Player player : players) {
+				if (player.getSerialNumber() == seat + 1) {
+					player.setPlayerPos(to);
+					if (destination != to) {
+						player.setPlayerPos(destination);
+					}
+				}
+			}
+			if (destination != lastCell) {
+				for (Player player : players) {
+					player.setSelected(player.getSerialNumber() == (seat + 1) % players.size() + 1);
+				}
+			}
+			replayed++;
+			if (listener != null) {
+				listener.turnReplayed(save, seat, dice, from, to, destination);
+			}
+		}
+		return replayed;
+	}
+
+	/**
+	 * Loop of the writer thread: takes everything queued, writes it, syncs once.
+	 */
+	private void write() {
+		List<Object> group = new ArrayList<>();
+		while (true) {
+			try {
+				group.add(queue.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			queue.drainTo(group);
+			List<CompletableFuture<Void>> synced = new ArrayList<>();
+			try {
+				for (Object item : group) {
+					if (item instanceof byte[] record) {
+						if (journal != null) {
+							journal.write(ByteBuffer.wrap(record));
+						}
+					} else if (item instanceof Snapshot snapshot) {
+						writeSnapshot(snapshot);
+					} else if (item instanceof Sync sync) {
+						synced.add(sync.done);
+					}
+				}
+				if (journal != null) {
+					journal.force(false);
+				}
+				synced.forEach(done -> done.complete(null));
+			} catch (IOException e) {
+				if (!failed) {
+					System.err.println("Move journal failed: " + e);
+				}
+				failed = true;
+				synced.forEach(done -> done.completeExceptionally(e));
+			}
+			group.clear();
+		}
+	}
+
+	/**
+	 * Writes the snapshot next to the old one, replaces it atomically, then starts an empty journal.
+	 * A crash in between leaves a journal of the older generation, which is ignored.
+	 */
+	private void writeSnapshot(final Snapshot snapshot) throws IOException {
+		Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+		try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+			StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)
+		) {
+			ByteBuffer header = ByteBuffer.allocate(12).putInt(SNAPSHOT_MAGIC).putLong(snapshot.generation).flip();
+			out.write(header);
+			out.write(ByteBuffer.wrap(snapshot.game));
+			out.force(false);
+		}
+		Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+			StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		// the new snapshot is on the disk before the turns it holds are dropped from the journal
+		GameIO.syncDirectory(directory.toAbsolutePath());
+		if (journal == null) {
+			journal = FileChannel.open(directory.resolve(JOURNAL_FILE),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		}
+		journal.truncate(0);
+		journal.write(ByteBuffer.allocate(JOURNAL_HEADER_SIZE)
+			.putInt(JOURNAL_MAGIC).putInt(VERSION).putLong(snapshot.generation).flip(), 0);
+		journal.position(JOURNAL_HEADER_SIZE);
+	}
+}
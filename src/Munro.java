@@ -1,4 +1,5 @@
 import java.awt.*;
+import java.awt.geom.Line2D;
 
 /**
  * @Author _se.ho
@@ -9,6 +10,26 @@ import java.awt.*;
 public class Munro extends Obstacle {
 	private static final long serialVersionUID = 1L;
 
+	private static final BasicStroke RAIL_STROKE = new BasicStroke(12.0f);
+
+	private static final BasicStroke STEP_STROKE = new BasicStroke(
+		3.0f,
+		BasicStroke.CAP_BUTT,
+		BasicStroke.JOIN_MITER,
+		1.0f,
+		new float[]{25.0f, 5.0f},
+		0.0f
+	);
+
+	// Length of a step and its gap, a trimmed ladder starts on a whole step
+	private static final double STEP_PERIOD = 30.0;
+
+	private transient Line2D.Double line;
+
+	private transient Line2D.Double visibleLine;
+
+	private transient Rectangle clip;
+
 	/**
 	 * Overrides the interactWithObject method to set the position of another GameObject to the current object's
 	 * position.
@@ -22,43 +43,97 @@ public class Munro extends Obstacle {
 	}
 
 	/**
-	 * Overrides the draw method to draw a specific shape in magenta color.
+	 * Builds the line of the ladder between the anchors.
 	 *
-	 * @param g The Graphics object to draw on.
+	 * @param startX The x-coordinate of the start anchor.
+	 * @param startY The y-coordinate of the start anchor.
+	 * @param endX   The x-coordinate of the end anchor.
+	 * @param endY   The y-coordinate of the end anchor.
 	 */
 	@Override
-	void draw(Graphics g) {
-		Graphics2D g2 = (Graphics2D) g;
-		g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+	void buildGeometry(int startX, int startY, int endX, int endY) {
+		if (line == null) {
+			line = new Line2D.Double();
+			visibleLine = new Line2D.Double();
+			clip = new Rectangle();
+		}
+		line.setLine(startX, startY, endX, endY);
+	}
+
+	/**
+	 * Trims the line to the clip, widened by the rail. A long ladder on a zoomed board is stroked only where
+	 * it can be seen instead of dashing its whole length. The visible part starts on a whole step from the start,
+	 * so the dashes stay where they are.
+	 *
+	 * @param g2 The Graphics2D object to draw on.
+	 * @return The line to draw, null if no part of it can be seen.
+	 */
+	private Line2D.Double visibleLine(Graphics2D g2) {
+		clip.setBounds(0, 0, -1, -1);
+		g2.getClipBounds(clip);
+		if (clip.width < 0) {
+			return line;
+		}
+		final double margin = RAIL_STROKE.getLineWidth();
+		final double dx = line.x2 - line.x1;
+		final double dy = line.y2 - line.y1;
+		double t0 = 0;
+		double t1 = 1;
+		// slabs of the clip along x and y
+		for (int axis = 0; axis < 2; axis++) {
+			double origin = axis == 0 ? line.x1 : line.y1;
+			double delta = axis == 0 ? dx : dy;
+			double min = (axis == 0 ? clip.x : clip.y) - margin;
+			double max = (axis == 0 ? clip.x + clip.width : clip.y + clip.height) + margin;
+			if (delta == 0) {
+				if (origin < min || origin > max) {
+					return null;
+				}
+				continue;
+			}
+			double enter = (min - origin) / delta;
+			double exit = (max - origin) / delta;
+			t0 = Math.max(t0, Math.min(enter, exit));
+			t1 = Math.min(t1, Math.max(enter, exit));
+		}
+		if (t0 > t1) {
+			return null;
+		}
+		if (t0 == 0 && t1 == 1) {
+			return line;
+		}
+		double length = Math.hypot(dx, dy);
+		t0 = Math.floor(t0 * length / STEP_PERIOD) * STEP_PERIOD / length;
+		visibleLine.setLine(line.x1 + dx * t0, line.y1 + dy * t0, line.x1 + dx * t1, line.y1 + dy * t1);
+		return visibleLine;
+	}
 
-		g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
+	/**
+	 * Overrides the paint method to draw a specific shape in magenta color.
+	 *
+	 * @param g2 The Graphics2D object to draw on.
+	 */
+	@Override
+	void paint(Graphics2D g2) {
+		Line2D.Double drawn = visibleLine(g2);
+		if (drawn == null) {
+			return;
+		}
+		beginPaint(g2);
 
 		Color saveColor = g2.getColor();
 
-		Point start = convertStartTo();
-		Point end = convertEndTo();
-
 		// Draw baseline Ladder
-		g.setColor(Color.MAGENTA);
-		g2.setStroke(new BasicStroke(12.0f));
-		g2.drawLine(start.x, start.y, end.x, end.y);
+		g2.setColor(Color.MAGENTA);
+		g2.setStroke(RAIL_STROKE);
+		g2.draw(drawn);
 
 		// Draw dashed line, emulate stairs
-		g.setColor(Color.YELLOW);
-		g2.setStroke(new BasicStroke(
-				3.0f,
-				BasicStroke.CAP_BUTT,
-				BasicStroke.JOIN_MITER,
-				1.0f,
-				new float[]{25.0f, 5.0f},
-				0.0f
-		));
-		g2.drawLine(start.x, start.y, end.x, end.y);
-
-		g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
-
-		// Uncomment the following line for debugging purposes
-		// System.out.println("%s, start.x = %d, start.y = %d, end.x = %d, end.y = %d".formatted(this.getClass().getName(),start.x, start.y, end.x, end.y));
+		g2.setColor(Color.YELLOW);
+		g2.setStroke(STEP_STROKE);
+		g2.draw(drawn);
+
+		g2.setComposite(OPAQUE);
 
 		g2.setColor(saveColor);
 	}
@@ -72,6 +147,6 @@ public class Munro extends Obstacle {
 	 */
 	@Override
 	boolean isNeedPerformance(final int position) {
-		return getStartButton().getPosition() == position;
+		return getStartPosition() == position;
 	}
 }
@@ -1,5 +1,7 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.io.Serializable;
 
 /**
@@ -15,16 +17,36 @@ public abstract class Obstacle extends GameObject implements Serializable {
 
 	protected int endPosition;
 
-	protected JButtonField startButton;
+	// The views are rebuilt from the positions after loading, they are not saved
 
-	protected JButtonField endButton;
+	protected transient JButtonField startButton;
 
-	protected JPanel obstaclePane;
+	protected transient JButtonField endButton;
+
+	protected transient JPanel obstaclePane;
 
 	private int posEndX;
 
 	private int posEndY;
 
+	/**
+	 * Half transparent drawing of the obstacles, shared by all of them.
+	 */
+	protected static final AlphaComposite HALF_TRANSPARENT = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f);
+
+	protected static final AlphaComposite OPAQUE = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f);
+
+	// Anchor points the retained geometry was built for, in coordinates of the panel the obstacle is drawn on
+	private transient int anchorStartX;
+
+	private transient int anchorStartY;
+
+	private transient int anchorEndX;
+
+	private transient int anchorEndY;
+
+	private transient boolean geometryValid;
+
 	/**
 	 * Gets the ending X-coordinate of the object.
 	 *
@@ -98,11 +120,157 @@ public abstract class Obstacle extends GameObject implements Serializable {
 	}
 
 	/**
-	 * Abstract method to draw the object.
+	 * Draws the obstacle between the buttons it is attached to, on the obstacle panel.
+	 * The anchors are found without allocation, the geometry is rebuilt only if the buttons moved.
 	 *
 	 * @param graphics The Graphics object to draw on.
 	 */
-	abstract void draw(Graphics graphics);
+	void draw(Graphics graphics) {
+		if (startButton == null || endButton == null || obstaclePane == null) {
+			return;
+		}
+		final int paneX = rootX(obstaclePane);
+		final int paneY = rootY(obstaclePane);
+		drawAt(
+			(Graphics2D) graphics,
+			rootX(startButton) - paneX + startButton.getWidth() / 3,
+			rootY(startButton) - paneY + startButton.getHeight() / 3 * 2,
+			rootX(endButton) - paneX + endButton.getWidth() / 3,
+			rootY(endButton) - paneY + endButton.getHeight() / 3 * 2
+		);
+	}
+
+	/**
+	 * Draws the obstacle between the specified anchor points. The retained geometry is rebuilt only when
+	 * the anchors differ from the previous call.
+	 *
+	 * @param g2     The Graphics2D object to draw on.
+	 * @param startX The x-coordinate of the start anchor.
+	 * @param startY The y-coordinate of the start anchor.
+	 * @param endX   The x-coordinate of the end anchor.
+	 * @param endY   The y-coordinate of the end anchor.
+	 */
+	void drawAt(Graphics2D g2, int startX, int startY, int endX, int endY) {
+		if (!geometryValid
+			|| startX != anchorStartX
+			|| startY != anchorStartY
+			|| endX != anchorEndX
+			|| endY != anchorEndY
+		) {
+			anchorStartX = startX;
+			anchorStartY = startY;
+			anchorEndX = endX;
+			anchorEndY = endY;
+			buildGeometry(startX, startY, endX, endY);
+			geometryValid = true;
+		}
+		paint(g2);
+	}
+
+	/**
+	 * Finds the point of the path of a player who rides the obstacle, a straight line by default.
+	 *
+	 * @param t      The part of the ride done, from 0 at the start to 1 at the end.
+	 * @param startX The x-coordinate of the start anchor.
+	 * @param startY The y-coordinate of the start anchor.
+	 * @param endX   The x-coordinate of the end anchor.
+	 * @param endY   The y-coordinate of the end anchor.
+	 * @param out    The point to fill.
+	 */
+	void pointAt(double t, int startX, int startY, int endX, int endY, Point2D.Double out) {
+		out.setLocation(startX + (endX - startX) * t, startY + (endY - startY) * t);
+	}
+
+	/**
+	 * Finds the box enclosing the path of the obstacle between the anchors, without the width of its strokes.
+	 * A straight line by default.
+	 *
+	 * @param startX The x-coordinate of the start anchor.
+	 * @param startY The y-coordinate of the start anchor.
+	 * @param endX   The x-coordinate of the end anchor.
+	 * @param endY   The y-coordinate of the end anchor.
+	 * @param out    The rectangle to fill.
+	 */
+	void bounds(double startX, double startY, double endX, double endY, Rectangle2D.Double out) {
+		out.setFrameFromDiagonal(startX, startY, endX, endY);
+	}
+
+	/**
+	 * Checks if the path of the obstacle between the anchors may cross an area, a straight line by default.
+	 * The check may answer true for a path which only passes near the area, never false for one crossing it.
+	 *
+	 * @param startX The x-coordinate of the start anchor.
+	 * @param startY The y-coordinate of the start anchor.
+	 * @param endX   The x-coordinate of the end anchor.
+	 * @param endY   The y-coordinate of the end anchor.
+	 * @param area   The area.
+	 * @return True if the path may cross the area.
+	 */
+	boolean crosses(double startX, double startY, double endX, double endY, Rectangle2D area) {
+		return area.intersectsLine(startX, startY, endX, endY);
+	}
+
+	/**
+	 * Builds the shapes of the obstacle for the anchor points.
+	 *
+	 * @param startX The x-coordinate of the start anchor.
+	 * @param startY The y-coordinate of the start anchor.
+	 * @param endX   The x-coordinate of the end anchor.
+	 * @param endY   The y-coordinate of the end anchor.
+	 */
+	abstract void buildGeometry(int startX, int startY, int endX, int endY);
+
+	/**
+	 * Paints the retained shapes of the obstacle, must not allocate.
+	 *
+	 * @param g2 The Graphics2D object to draw on.
+	 */
+	abstract void paint(Graphics2D g2);
+
+	/**
+	 * Sets the antialiasing and the transparency of the {@link RenderQuality} of the graphics, called first by
+	 * {@link #paint(Graphics2D)}.
+	 *
+	 * @param g2 The Graphics2D object to draw on.
+	 * @return The level to draw at.
+	 */
+	RenderQuality beginPaint(Graphics2D g2) {
+		RenderQuality quality = RenderQuality.of(g2);
+		g2.setRenderingHint(
+			RenderingHints.KEY_ANTIALIASING,
+			quality.isAntialiasing() ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF
+		);
+		g2.setComposite(quality.isTranslucent() ? HALF_TRANSPARENT : OPAQUE);
+		return quality;
+	}
+
+	/**
+	 * Sums the locations of the component and its parents up to the root pane, without allocation.
+	 *
+	 * @param component The component.
+	 * @return The x-coordinate of the component in the root pane.
+	 */
+	private static int rootX(Component component) {
+		int x = 0;
+		for (Component c = component; c != null && !(c instanceof JRootPane) && !(c instanceof Window); c = c.getParent()) {
+			x += c.getX();
+		}
+		return x;
+	}
+
+	/**
+	 * Sums the locations of the component and its parents up to the root pane, without allocation.
+	 *
+	 * @param component The component.
+	 * @return The y-coordinate of the component in the root pane.
+	 */
+	private static int rootY(Component component) {
+		int y = 0;
+		for (Component c = component; c != null && !(c instanceof JRootPane) && !(c instanceof Window); c = c.getParent()) {
+			y += c.getY();
+		}
+		return y;
+	}
 
 	/**
 	 * Abstract method to check if performance is needed for a given position.
@@ -0,0 +1,194 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Static R-tree over the bounding boxes of the obstacles, packed with the Sort-Tile-Recursive algorithm.
+ * A query visits only the nodes whose boxes intersect the searched rectangle, so finding the obstacles of
+ * a small viewport on a board with a hundred thousand obstacles touches a few hundred boxes.
+ * <p>
+ * Boxes are kept in primitive arrays, one set per level of the tree. The index is immutable, it is built
+ * again when the obstacles change.
+ */
+public final class ObstacleIndex {
+
+	private static final int NODE_CAPACITY = 16;
+
+	/**
+	 * boxes[level][4 * i .. 4 * i + 3] = minX, minY, maxX, maxY of entry i of the level, level 0 are the items.
+	 */
+	private final float[][] boxes;
+
+	/**
+	 * first[level][i] is the first child of node i in the level below, level 0 has none.
+	 */
+	private final int[][] first;
+
+	private final int[][] count;
+
+	/**
+	 * ids[i] is the item of the entry i of level 0.
+	 */
+	private final int[] ids;
+
+	/**
+	 * Builds the index.
+	 *
+	 * @param itemBoxes The boxes of the items, 4 values per item: minX, minY, maxX, maxY.
+	 */
+	public ObstacleIndex(final float[] itemBoxes) {
+		final int n = itemBoxes.length / 4;
+		int levels = 1;
+		for (int k = n; k > 1; k = (k + NODE_CAPACITY - 1) / NODE_CAPACITY) {
+			levels++;
+		}
+		boxes = new float[levels][];
+		first = new int[levels][];
+		count = new int[levels][];
+
+		// level 0, the items in the order of the tiles
+		int[] order = tileOrder(itemBoxes, n);
+		ids = order;
+		boxes[0] = permute(itemBoxes, order);
+		first[0] = new int[0];
+		count[0] = new int[0];
+
+		for (int level = 1; level < levels; level++) {
+			float[] below = boxes[level - 1];
+			int k = below.length / 4;
+			int parents = (k + NODE_CAPACITY - 1) / NODE_CAPACITY;
+			float[] parentBoxes = new float[4 * parents];
+			int[] parentFirst = new int[parents];
+			int[] parentCount = new int[parents];
+			for (int p = 0; p < parents; p++) {
+				int from = p * NODE_CAPACITY;
+				int to = Math.min(k, from + NODE_CAPACITY);
+				parentFirst[p] = from;
+				parentCount[p] = to - from;
+				parentBoxes[4 * p] = Float.POSITIVE_INFINITY;
+				parentBoxes[4 * p + 1] = Float.POSITIVE_INFINITY;
+				parentBoxes[4 * p + 2] = Float.NEGATIVE_INFINITY;
+				parentBoxes[4 * p + 3] = Float.NEGATIVE_INFINITY;
+				for (int c = from; c < to; c++) {
+					parentBoxes[4 * p] = Math.min(parentBoxes[4 * p], below[4 * c]);
+					parentBoxes[4 * p + 1] = Math.min(parentBoxes[4 * p + 1], below[4 * c + 1]);
+					parentBoxes[4 * p + 2] = Math.max(parentBoxes[4 * p + 2], below[4 * c + 2]);
+					parentBoxes[4 * p + 3] = Math.max(parentBoxes[4 * p + 3], below[4 * c + 3]);
+				}
+			}
+			// the parents are tiled too, their children stay where they are
+			int[] parentOrder = tileOrder(parentBoxes, parents);
+			boxes[level] = permute(parentBoxes, parentOrder);
+			first[level] = new int[parents];
+			count[level] = new int[parents];
+			for (int i = 0; i < parents; i++) {
+				first[level][i] = parentFirst[parentOrder[i]];
+				count[level][i] = parentCount[parentOrder[i]];
+			}
+		}
+	}
+
+	/**
+	 * Sorts the entries into vertical slices by the center x and every slice by the center y,
+	 * so consecutive runs of {@link #NODE_CAPACITY} entries are compact tiles.
+	 */
+	private static int[] tileOrder(final float[] entryBoxes, final int n) {
+		final long[] keys = new long[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = sortKey(entryBoxes[4 * i] + entryBoxes[4 * i + 2], i);
+		}
+		Arrays.sort(keys);
+		final int nodes = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+		final int slices = (int) Math.ceil(Math.sqrt(nodes));
+		final int sliceSize = slices * NODE_CAPACITY;
+		final int[] order = new int[n];
+		for (int from = 0; from < n; from += sliceSize) {
+			int to = Math.min(n, from + sliceSize);
+			for (int i = from; i < to; i++) {
+				int index = (int) keys[i];
+				keys[i] = sortKey(entryBoxes[4 * index + 1] + entryBoxes[4 * index + 3], index);
+			}
+			Arrays.sort(keys, from, to);
+			for (int i = from; i < to; i++) {
+				order[i] = (int) keys[i];
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Packs a float and an index into a long which sorts by the float, then by the index.
+	 */
+	private static long sortKey(final float value, final int index) {
+		int bits = Float.floatToIntBits(value);
+		bits ^= (bits >> 31) & 0x7fffffff;
+		return (long) bits << 32 | index;
+	}
+
+	private static float[] permute(final float[] entryBoxes, final int[] order) {
+		float[] res = new float[order.length * 4];
+		for (int i = 0; i < order.length; i++) {
+			System.arraycopy(entryBoxes, 4 * order[i], res, 4 * i, 4);
+		}
+		return res;
+	}
+
+	/**
+	 * Visits every item whose box intersects the rectangle.
+	 *
+	 * @param minX    The left side of the rectangle.
+	 * @param minY    The top side of the rectangle.
+	 * @param maxX    The right side of the rectangle.
+	 * @param maxY    The bottom side of the rectangle.
+	 * @param visitor Receives the items, in no particular order.
+	 */
+	public void query(final float minX, final float minY, final float maxX, final float maxY, final IntConsumer visitor) {
+		if (ids.length == 0) {
+			return;
+		}
+		final int top = boxes.length - 1;
+		// (level, index) pairs, a path from the root holds at most NODE_CAPACITY entries per level
+		int[] stack = new int[2 * NODE_CAPACITY * boxes.length + 2];
+		int size = 0;
+		for (int i = 0; i < boxes[top].length / 4; i++) {
+			stack = push(stack, size, top, i);
+			size += 2;
+		}
+		while (size > 0) {
+			size -= 2;
+			int level = stack[size];
+			int index = stack[size + 1];
+			float[] b = boxes[level];
+			if (b[4 * index] > maxX || b[4 * index + 2] < minX || b[4 * index + 1] > maxY || b[4 * index + 3] < minY) {
+				continue;
+			}
+			if (level == 0) {
+				visitor.accept(ids[index]);
+				continue;
+			}
+			int from = first[level][index];
+			int to = from + count[level][index];
+			for (int c = from; c < to; c++) {
+				stack = push(stack, size, level - 1, c);
+				size += 2;
+			}
+		}
+	}
+
+	private static int[] push(int[] stack, final int size, final int level, final int index) {
+		if (size + 2 > stack.length) {
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		}
+		stack[size] = level;
+		stack[size + 1] = index;
+		return stack;
+	}
+
+	/**
+	 * Gets the number of indexed items.
+	 *
+	 * @return The number of items.
+	 */
+	public int size() {
+		return ids.length;
+	}
+}
@@ -1,5 +1,9 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,12 +15,71 @@ public class ObstaclePane extends JPanel {
 
 	private List<Obstacle> obstacleList = new ArrayList<>();
 
+	/**
+	 * Obstacles rendered once, blitted on every repaint until they or the geometry change.
+	 */
+	private BufferedImage layer;
+
+	private boolean layerValid;
+
+	private double layerScaleX;
+
+	private double layerScaleY;
+
+	private TokenAnimator tokenAnimator;
+
+	private QualityController qualityController;
+
+	private final ComponentAdapter geometryListener = new ComponentAdapter() {
+		@Override
+		public void componentResized(final ComponentEvent e) {
+			invalidateLayer();
+		}
+
+		@Override
+		public void componentMoved(final ComponentEvent e) {
+			invalidateLayer();
+		}
+	};
+
 	/**
 	 * Constructs an ObstaclePane.
 	 */
 	public ObstaclePane() {
 		super();
 		setOpaque(false);
+		addComponentListener(geometryListener);
+	}
+
+	/**
+	 * Watches the component holding the buttons the obstacles are attached to,
+	 * the cached layer is rendered again when it is moved or resized.
+	 *
+	 * @param board The component with the buttons of the board.
+	 */
+	public void watch(final Component board) {
+		board.addComponentListener(geometryListener);
+	}
+
+	/**
+	 * Sets the animator whose moving token is painted over the obstacles.
+	 *
+	 * @param tokenAnimator The animator, null for none.
+	 */
+	public void setTokenAnimator(final TokenAnimator tokenAnimator) {
+		this.tokenAnimator = tokenAnimator;
+	}
+
+	/**
+	 * Sets the controller choosing the quality of the obstacles, it is told how long the paints take.
+	 *
+	 * @param qualityController The controller, null to always draw at the high quality.
+	 */
+	public void setQualityController(final QualityController qualityController) {
+		this.qualityController = qualityController;
+		if (qualityController != null) {
+			qualityController.addListener(this::invalidateLayer);
+		}
 	}
 
 	/**
@@ -27,6 +90,7 @@ public class ObstaclePane extends JPanel {
 	public void addObstacle(final Obstacle obstacle) {
 		obstacle.setObstaclePane(this);
 		obstacleList.add(obstacle);
+		invalidateLayer();
 	}
 
 	/**
@@ -36,6 +100,7 @@ public class ObstaclePane extends JPanel {
 	 */
 	public void removeObstacle(final Obstacle obstacle) {
 		obstacleList.remove(obstacle);
+		invalidateLayer();
 	}
 
 	/**
@@ -43,18 +108,91 @@ public class ObstaclePane extends JPanel {
 	 */
 	public void clearObstacle() {
 		obstacleList.clear();
+		invalidateLayer();
 	}
 
 	/**
-	 * Overrides the paintComponent method to draw obstacles.
+	 * Marks the cached layer of obstacles as outdated, it is rendered again on the next repaint.
+	 */
+	public void invalidateLayer() {
+		layerValid = false;
+		repaint();
+	}
+
+	/**
+	 * Overrides the paintComponent method to draw obstacles. They are drawn from the cached layer,
+	 * which is rendered again only after a change of the obstacles, the size, the screen scale or the quality.
 	 *
 	 * @param g The Graphics object to draw on.
 	 */
 	@Override
 	protected void paintComponent(final Graphics g) {
-		super.paintComponent(g);
-		if (!obstacleList.isEmpty()) {
-			obstacleList.forEach(o -> o.draw(g));
+		final long paintStart = PaintMetrics.start();
+		final long qualityStart = qualityController != null ? System.nanoTime() : 0;
+		try {
+			super.paintComponent(g);
+			if (getWidth() <= 0 || getHeight() <= 0) {
+				return;
+			}
+			Graphics2D g2 = (Graphics2D) g;
+			if (!obstacleList.isEmpty()) {
+				paintObstacles(g2);
+			}
+			if (tokenAnimator != null) {
+				tokenAnimator.paint(g2);
+			}
+		} finally {
+			PaintMetrics.record(PaintMetrics.Section.OBSTACLE_PANE, paintStart);
+			if (qualityController != null) {
+				qualityController.record(System.nanoTime() - qualityStart);
+			}
+		}
+	}
+
+	/**
+	 * Blits the cached layer of obstacles, rendering it first if it is outdated.
+	 */
+	private void paintObstacles(final Graphics2D g2) {
+		AffineTransform transform = g2.getTransform();
+		double scaleX = transform.getScaleX();
+		double scaleY = transform.getScaleY();
+		int width = (int) Math.ceil(getWidth() * scaleX);
+		int height = (int) Math.ceil(getHeight() * scaleY);
+		if (!layerValid
+			|| layer == null
+			|| layer.getWidth() != width
+			|| layer.getHeight() != height
+			|| layerScaleX != scaleX
+			|| layerScaleY != scaleY
+		) {
+			renderLayer(width, height, scaleX, scaleY);
+		}
+		g2.drawImage(layer, 0, 0, getWidth(), getHeight(), null);
+	}
+
+	/**
+	 * Renders all obstacles into the cached layer at the device resolution.
+	 */
+	private void renderLayer(final int width, final int height, final double scaleX, final double scaleY) {
+		if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+			GraphicsConfiguration configuration = getGraphicsConfiguration();
+			layer = configuration != null
+				? configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+				: new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+		}
+		Graphics2D g2 = layer.createGraphics();
+		try {
+			g2.setComposite(AlphaComposite.Clear);
+			g2.fillRect(0, 0, width, height);
+			g2.setComposite(AlphaComposite.SrcOver);
+			g2.scale(scaleX, scaleY);
+			(qualityController != null ? qualityController.getQuality() : RenderQuality.HIGH).applyTo(g2);
+			obstacleList.forEach(o -> o.draw(g2));
+		} finally {
+			g2.dispose();
 		}
+		layerScaleX = scaleX;
+		layerScaleY = scaleY;
+		layerValid = true;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,312 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the cells of the obstacles. Cells are sampled without repetition by a partial Fisher-Yates shuffle
+ * over a virtual array of the candidate cells, only the swapped entries are stored, so placing {@code k}
+ * obstacles costs O(k) time and memory whatever the size of the board.
+ * <p>
+ * Every cell holds at most one end of one obstacle, so a head never lands on the tail of another obstacle.
+ * Further constraints: the first and the last cell are never used (switchable), the length of an obstacle
+ * is kept between a minimum and a maximum, and the number of obstacle ends in one row can be capped.
+ * The same seed and constraints always give the same placement.
+ */
+public class ObstaclePlacer {
+
+	private static final int ATTEMPTS = 64;
+
+	private final BoardLayout layout;
+
+	private final SplittableRandom random;
+
+	private boolean excludeEnds = true;
+
+	private int minLength = 1;
+
+	private int maxLength = Integer.MAX_VALUE;
+
+	private int maxPerRow = Integer.MAX_VALUE;
+
+	/**
+	 * Constructs a placer with a random seed.
+	 *
+	 * @param layout The board to place the obstacles on.
+	 */
+	public ObstaclePlacer(final BoardLayout layout) {
+		this(layout, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructs a placer.
+	 *
+	 * @param layout The board to place the obstacles on.
+	 * @param seed   The seed, the same seed gives the same placement.
+	 */
+	public ObstaclePlacer(final BoardLayout layout, final long seed) {
+		this.layout = layout;
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Sets whether the first and the last cell are kept free of obstacles, true by default.
+	 *
+	 * @param excludeEnds True to keep the first and the last cell free.
+	 */
+	public void setExcludeEnds(final boolean excludeEnds) {
+		this.excludeEnds = excludeEnds;
+	}
+
+	/**
+	 * Sets the shortest obstacle, in cells between its ends, 1 by default.
+	 *
+	 * @param minLength The minimal length.
+	 */
+	public void setMinLength(final int minLength) {
+		if (minLength < 1) {
+			throw new IllegalArgumentException("Min length has to be positive, got " + minLength);
+		}
+		this.minLength = minLength;
+	}
+
+	/**
+	 * Sets the longest obstacle, in cells between its ends, unlimited by default.
+	 *
+	 * @param maxLength The maximal length.
+	 */
+	public void setMaxLength(final int maxLength) {
+		if (maxLength < 1) {
+			throw new IllegalArgumentException("Max length has to be positive, got " + maxLength);
+		}
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * Sets the largest number of obstacle ends in one row, unlimited by default.
+	 *
+	 * @param maxPerRow The cap of obstacle ends per row.
+	 */
+	public void setMaxPerRow(final int maxPerRow) {
+		if (maxPerRow < 1) {
+			throw new IllegalArgumentException("Max per row has to be positive, got " + maxPerRow);
+		}
+		this.maxPerRow = maxPerRow;
+	}
+
+	/**
+	 * Places the obstacles.
+	 *
+	 * @param count The number of obstacles.
+	 * @return Array of {@code 2 * count} cells, the lower and the higher cell of every obstacle.
+	 * @throws IllegalArgumentException if the board has not enough free cells for the obstacles.
+	 * @throws IllegalStateException    if the constraints can't be satisfied.
+	 */
+	public int[] place(final int count) {
+		final int first = excludeEnds ? 1 : 0;
+		final int last = excludeEnds ? layout.getLastCell() - 1 : layout.getLastCell();
+		final int candidates = last - first + 1;
+		if (count < 0 || 2L * count > candidates) {
+			throw new IllegalArgumentException(
+				"Can't place %d obstacles on %d free cells".formatted(count, Math.max(0, candidates))
+			);
+		}
+		if (2L * count > (long) layout.getRows() * maxPerRow) {
+			throw new IllegalArgumentException(
+				"Can't place %d obstacles with %d ends per row on %d rows"
+					.formatted(count, maxPerRow, layout.getRows())
+			);
+		}
+		final int longest = Math.min(maxLength, candidates - 1);
+		if (count > 0 && longest < minLength) {
+			throw new IllegalArgumentException(
+				"No obstacle length between %d and %d fits the board".formatted(minLength, maxLength)
+			);
+		}
+
+		final Shuffle shuffle = new Shuffle(first, candidates, 2 * count);
+		final int[] perRow = maxPerRow == Integer.MAX_VALUE ? null : new int[layout.getRows()];
+		final int[] res = new int[2 * count];
+		for (int i = 0; i < count; i++) {
+			int a = -1;
+			int b = -1;
+			for (int attempt = 0; attempt < ATTEMPTS && b < 0; attempt++) {
+				a = shuffle.draw(random);
+				if (perRow != null && perRow[layout.rowOf(a)] >= maxPerRow) {
+					shuffle.undraw();
+					continue;
+				}
+				b = pickPartner(shuffle, perRow, a, first, last, longest);
+				if (b < 0) {
+					shuffle.undraw();
+				}
+			}
+			if (b < 0) {
+				throw new IllegalStateException("Can't place obstacle %d of %d with the constraints".formatted(i + 1, count));
+			}
+			if (perRow != null) {
+				perRow[layout.rowOf(a)]++;
+				perRow[layout.rowOf(b)]++;
+			}
+			res[2 * i] = Math.min(a, b);
+			res[2 * i + 1] = Math.max(a, b);
+		}
+		return res;
+	}
+
+	/**
+	 * Picks the other end of an obstacle at a random allowed distance from the first one.
+	 *
+	 * @return The cell taken from the shuffle, or -1 if no free cell was found.
+	 */
+	private int pickPartner(Shuffle shuffle, int[] perRow, int a, int first, int last, int longest) {
+		final int rowA = layout.rowOf(a);
+		for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+			int length = minLength + random.nextInt(longest - minLength + 1);
+			int b = random.nextBoolean() ? a + length : a - length;
+			if (b < first || b > last || !shuffle.isFree(b)) {
+				continue;
+			}
+			if (perRow != null) {
+				int rowB = layout.rowOf(b);
+				if (perRow[rowB] + (rowB == rowA ? 2 : 1) > maxPerRow) {
+					continue;
+				}
+			}
+			shuffle.take(b);
+			return b;
+		}
+		return -1;
+	}
+
+	/**
+	 * Partial Fisher-Yates shuffle of the cells {@code first .. first + size - 1}. The virtual array starts
+	 * as the identity, only the entries which differ from it are kept in two small hash maps,
+	 * index to cell and cell to index. Cells at the indexes below {@code drawn} are taken.
+	 */
+	private static final class Shuffle {
+
+		private final int first;
+
+		private final int size;
+
+		private final IntMap cellAt;
+
+		private final IntMap indexOf;
+
+		private int drawn;
+
+		private Shuffle(final int first, final int size, final int expected) {
+			this.first = first;
+			this.size = size;
+			this.cellAt = new IntMap(expected * 2);
+			this.indexOf = new IntMap(expected * 2);
+		}
+
+		private int cellAt(final int index) {
+			return cellAt.get(index, first + index);
+		}
+
+		private int indexOf(final int cell) {
+			return indexOf.get(cell, cell - first);
+		}
+
+		private void swap(final int i, final int j) {
+			int ci = cellAt(i);
+			int cj = cellAt(j);
+			cellAt.put(i, cj);
+			cellAt.put(j, ci);
+			indexOf.put(cj, i);
+			indexOf.put(ci, j);
+		}
+
+		/**
+		 * Takes a random free cell.
+		 */
+		private int draw(final SplittableRandom random) {
+			int j = drawn + random.nextInt(size - drawn);
+			swap(drawn, j);
+			return cellAt(drawn++);
+		}
+
+		/**
+		 * Returns the last taken cell to the free ones.
+		 */
+		private void undraw() {
+			drawn--;
+		}
+
+		private boolean isFree(final int cell) {
+			return indexOf(cell) >= drawn;
+		}
+
+		/**
+		 * Takes the specified free cell.
+		 */
+		private void take(final int cell) {
+			swap(drawn, indexOf(cell));
+			drawn++;
+		}
+	}
+
+	/**
+	 * Open addressing hash map from int to int, sized once for the expected number of keys.
+	 */
+	private static final class IntMap {
+
+		private static final int EMPTY = -1;
+
+		private int[] keys;
+
+		private int[] values;
+
+		private int count;
+
+		private IntMap(final int expected) {
+			int capacity = Integer.highestOneBit(Math.max(8, expected * 2 - 1)) << 1;
+			keys = new int[capacity];
+			values = new int[capacity];
+			Arrays.fill(keys, EMPTY);
+		}
+
+		private int slot(final int key) {
+			int mask = keys.length - 1;
+			int h = key * 0x9E3779B9;
+			int i = (h ^ h >>> 16) & mask;
+			while (keys[i] != EMPTY && keys[i] != key) {
+				i = i + 1 & mask;
+			}
+			return i;
+		}
+
+		private int get(final int key, final int missing) {
+			int i = slot(key);
+			return keys[i] == EMPTY ? missing : values[i];
+		}
+
+		private void put(final int key, final int value) {
+			int i = slot(key);
+			if (keys[i] == EMPTY) {
+				if (++count * 2 > keys.length) {
+					grow();
+					i = slot(key);
+				}
+				keys[i] = key;
+			}
+			values[i] = value;
+		}
+
+		private void grow() {
+			int[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new int[oldKeys.length * 2];
+			values = new int[oldKeys.length * 2];
+			Arrays.fill(keys, EMPTY);
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != EMPTY) {
+					int j = slot(oldKeys[i]);
+					keys[j] = oldKeys[i];
+					values[j] = oldValues[i];
+				}
+			}
+		}
+	}
+}
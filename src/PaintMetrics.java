@@ -0,0 +1,304 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in measurement of where the paint time goes. Enabled by the system property {@code selkies.metrics}:
+ * {@code true} collects the metrics and prints a report on exit, {@code hud} also shows them in an overlay.
+ * <p>
+ * Painting code brackets its work with {@link #start()} and {@link #record(Section, long)}. The times go into
+ * histograms with power of two buckets, recording is a few arithmetic operations without allocation, and when
+ * the metrics are disabled both calls return at once. Besides the sections the frames per second are counted
+ * from the paint cycles of the repaint manager and the latency of the event queue is probed ten times a second.
+ * <p>
+ * Paint times are recorded on the Event Dispatch Thread, the histograms are not synchronized.
+ */
+public final class PaintMetrics {
+
+	/**
+	 * Measured parts of the painting.
+	 */
+	public enum Section {
+		FRAME("frame"),
+		OBSTACLE_PANE("obstacles"),
+		BOARD_CANVAS("canvas"),
+		BUTTON_FIELD("cell"),
+		PICTOGRAM("pictogram"),
+		INFO_PANE("info row"),
+		EDT_LATENCY("EDT latency");
+
+		private final String label;
+
+		Section(final String label) {
+			this.label = label;
+		}
+	}
+
+	public static final boolean ENABLED;
+
+	public static final boolean HUD;
+
+	private static final int PROBE_MILLIS = 100;
+
+	private static final int HUD_MILLIS = 500;
+
+	private static final Map<Section, Histogram> HISTOGRAMS = new EnumMap<>(Section.class);
+
+	private static boolean installed;
+
+	private static long fpsFrames;
+
+	private static long fpsStart;
+
+	private static double fps;
+
+	static {
+		String mode = System.getProperty("selkies.metrics", "false");
+		HUD = "hud".equalsIgnoreCase(mode);
+		ENABLED = HUD || Boolean.parseBoolean(mode);
+		for (Section section : Section.values()) {
+			HISTOGRAMS.put(section, new Histogram());
+		}
+	}
+
+	private PaintMetrics() {
+	}
+
+	/**
+	 * Starts a measurement.
+	 *
+	 * @return The start time to pass to {@link #record(Section, long)}, 0 if the metrics are disabled.
+	 */
+	public static long start() {
+		return ENABLED ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records the time since the start of a measurement.
+	 *
+	 * @param section The measured section.
+	 * @param start   The value returned by {@link #start()}.
+	 */
+	public static void record(final Section section, final long start) {
+		if (ENABLED) {
+			HISTOGRAMS.get(section).record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Gets the histogram of a section.
+	 *
+	 * @param section The section.
+	 * @return The histogram.
+	 */
+	public static Histogram get(final Section section) {
+		return HISTOGRAMS.get(section);
+	}
+
+	/**
+	 * Gets the frames per second measured over the last half second.
+	 *
+	 * @return The frame rate.
+	 */
+	public static double getFramesPerSecond() {
+		return fps;
+	}
+
+	/**
+	 * Starts the frame counting, the probe of the event queue and the overlay, if the metrics are enabled.
+	 * Must be called on the Event Dispatch Thread.
+	 *
+	 * @param frame The main window.
+	 */
+	public static void install(final JFrame frame) {
+		if (!ENABLED || installed) {
+			return;
+		}
+		installed = true;
+		RepaintManager.setCurrentManager(new RepaintManager() {
+			@Override
+			public void paintDirtyRegions() {
+				long start = System.nanoTime();
+				super.paintDirtyRegions();
+				HISTOGRAMS.get(Section.FRAME).record(System.nanoTime() - start);
+			}
+		});
+
+		ScheduledExecutorService probe = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "edt-latency-probe");
+			thread.setDaemon(true);
+			return thread;
+		});
+		probe.scheduleAtFixedRate(() -> {
+			long posted = System.nanoTime();
+			SwingUtilities.invokeLater(() -> record(Section.EDT_LATENCY, posted));
+		}, PROBE_MILLIS, PROBE_MILLIS, TimeUnit.MILLISECONDS);
+
+		fpsStart = System.nanoTime();
+		Timer fpsTimer = new Timer(HUD_MILLIS, e -> updateFramesPerSecond());
+		fpsTimer.start();
+
+		if (HUD) {
+			Hud hud = new Hud();
+			JLayeredPane layers = frame.getLayeredPane();
+			layers.add(hud, JLayeredPane.POPUP_LAYER);
+			layers.addComponentListener(new ComponentAdapter() {
+				@Override
+				public void componentResized(final ComponentEvent e) {
+					hud.place();
+				}
+			});
+			hud.place();
+			fpsTimer.addActionListener(e -> hud.repaint());
+		}
+
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(report()), "paint-metrics-report"));
+	}
+
+	private static void updateFramesPerSecond() {
+		long now = System.nanoTime();
+		long frames = HISTOGRAMS.get(Section.FRAME).getCount();
+		fps = (frames - fpsFrames) * 1e9 / Math.max(1, now - fpsStart);
+		fpsFrames = frames;
+		fpsStart = now;
+	}
+
+	/**
+	 * Formats all the metrics, one section per line.
+	 *
+	 * @return The report.
+	 */
+	public static String report() {
+		StringBuilder sb = new StringBuilder("Paint metrics, ms:\n");
+		for (Section section : Section.values()) {
+			sb.append(format(section)).append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static String format(final Section section) {
+		Histogram h = HISTOGRAMS.get(section);
+		return "%-12s n=%-7d mean=%6.2f p50<%6.2f p99<%6.2f max=%6.2f".formatted(
+			section.label,
+			h.getCount(),
+			h.getMeanMillis(),
+			h.getPercentileMillis(50),
+			h.getPercentileMillis(99),
+			h.getMaxMillis()
+		);
+	}
+
+	/**
+	 * Histogram of durations with a bucket for every power of two of nanoseconds.
+	 */
+	public static final class Histogram {
+
+		private final long[] buckets = new long[64];
+
+		private long count;
+
+		private long sum;
+
+		private long max;
+
+		private void record(final long nanos) {
+			long value = Math.max(0, nanos);
+			buckets[64 - Long.numberOfLeadingZeros(value | 1) - 1]++;
+			count++;
+			sum += value;
+			max = Math.max(max, value);
+		}
+
+		/**
+		 * Gets the number of measurements.
+		 *
+		 * @return The count.
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Gets the mean duration.
+		 *
+		 * @return The mean in milliseconds, 0 without measurements.
+		 */
+		public double getMeanMillis() {
+			return count == 0 ? 0 : sum / 1e6 / count;
+		}
+
+		/**
+		 * Gets the longest duration.
+		 *
+		 * @return The maximum in milliseconds.
+		 */
+		public double getMaxMillis() {
+			return max / 1e6;
+		}
+
+		/**
+		 * Gets an upper bound of a percentile, the end of the bucket where it falls.
+		 *
+		 * @param percent The percentile, from 0 to 100.
+		 * @return The bound in milliseconds, 0 without measurements.
+		 */
+		public double getPercentileMillis(final double percent) {
+			if (count == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(count * percent / 100.0);
+			long seen = 0;
+			for (int b = 0; b < buckets.length; b++) {
+				seen += buckets[b];
+				if (seen >= rank) {
+					return Math.min(max, (2L << b) - 1) / 1e6;
+				}
+			}
+			return max / 1e6;
+		}
+	}
+
+	/**
+	 * Overlay in the top right corner of the window with the frame rate and the sections.
+	 */
+	private static final class Hud extends JComponent {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final int WIDTH = 420;
+
+		private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+
+		private Hud() {
+			setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+			setForeground(Color.GREEN);
+		}
+
+		private void place() {
+			Container parent = getParent();
+			int lineHeight = getFontMetrics(getFont()).getHeight();
+			int height = lineHeight * (Section.values().length + 1) + 8;
+			setBounds(parent.getWidth() - WIDTH - 8, 8, WIDTH, height);
+		}
+
+		@Override
+		protected void paintComponent(final Graphics g) {
+			g.setColor(BACKGROUND);
+			g.fillRect(0, 0, getWidth(), getHeight());
+			g.setColor(getForeground());
+			FontMetrics metrics = g.getFontMetrics();
+			int y = 4 + metrics.getAscent();
+			g.drawString("%.1f fps".formatted(fps), 6, y);
+			for (Section section : Section.values()) {
+				y += metrics.getHeight();
+				g.drawString(format(section), 6, y);
+			}
+		}
+	}
+}
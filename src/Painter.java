@@ -21,6 +21,9 @@ public enum Painter implements Supplier<BiConsumer<Point, Graphics>> {
 
 	private final int numberPainter;
 
+	// Resolved once, painting does not go through the switch of PaintUtils
+	private final BiConsumer<Point, Graphics> consumer;
+
 	/**
 	 * Constructs a Painter with a specified painter number.
 	 *
@@ -28,6 +31,7 @@ public enum Painter implements Supplier<BiConsumer<Point, Graphics>> {
 	 */
 	Painter(final int numberPainter) {
 		this.numberPainter = numberPainter;
+		this.consumer = PaintUtils.getConsumer(numberPainter);
 	}
 
 	/**
@@ -37,7 +41,7 @@ public enum Painter implements Supplier<BiConsumer<Point, Graphics>> {
 	 */
 	@Override
 	public BiConsumer<Point, Graphics> get() {
-		return PaintUtils.getConsumer(numberPainter);
+		return consumer;
 	}
 
 	/**
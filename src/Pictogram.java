@@ -36,9 +36,14 @@ public class Pictogram extends JLabel {
 	 */
 	@Override
 	protected void paintComponent(final Graphics g) {
-		super.paintComponent(g);
-		if (Objects.nonNull(painter)) {
-			painter.get().accept(new Point(getWidth() / 2, getHeight() / 2), g);
+		final long paintStart = PaintMetrics.start();
+		try {
+			super.paintComponent(g);
+			if (Objects.nonNull(painter)) {
+				PictogramAtlas.draw(g, painter, getWidth() / 2, getHeight() / 2);
+			}
+		} finally {
+			PaintMetrics.record(PaintMetrics.Section.PICTOGRAM, paintStart);
 		}
 	}
 
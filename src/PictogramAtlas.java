@@ -0,0 +1,146 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sprite atlas of the player pictograms. Every {@link Painter} shape is rasterized once per sprite size and
+ * device scale into one shared image, a token is then drawn with a single image blit instead of building
+ * and filling its polygon on every paint.
+ * <p>
+ * The atlases are cached by size and scale, so on a HiDPI screen the sprites are rasterized at the pixel
+ * resolution of the device and stay sharp. The cache is safe to use from several threads.
+ */
+public final class PictogramAtlas {
+
+	/**
+	 * Logical size of one sprite in pixels, the shapes of {@link PaintUtils} fit into it with their outline.
+	 */
+	public static final int SPRITE_SIZE = 20;
+
+	private static final double MAX_SCALE = 8.0;
+
+	private static final int MAX_ATLASES = 64;
+
+	private static final ConcurrentHashMap<Long, PictogramAtlas> ATLASES = new ConcurrentHashMap<>();
+
+	private static final Painter[] PAINTERS = Painter.values();
+
+	private final int size;
+
+	private final int pixelWidth;
+
+	private final int pixelHeight;
+
+	private final BufferedImage image;
+
+	/**
+	 * Rasterizes all the pictograms.
+	 *
+	 * @param size   The logical size of a sprite.
+	 * @param scaleX The horizontal device scale.
+	 * @param scaleY The vertical device scale.
+	 */
+	private PictogramAtlas(final int size, final double scaleX, final double scaleY) {
+		this.size = size;
+		this.pixelWidth = Math.max(1, (int) Math.ceil(size * scaleX));
+		this.pixelHeight = Math.max(1, (int) Math.ceil(size * scaleY));
+		this.image = new BufferedImage(pixelWidth * PAINTERS.length, pixelHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+		Graphics2D g2 = image.createGraphics();
+		try {
+			g2.scale((double) pixelWidth / SPRITE_SIZE, (double) pixelHeight / SPRITE_SIZE);
+			for (Painter painter : PAINTERS) {
+				painter.get().accept(new Point(painter.ordinal() * SPRITE_SIZE + SPRITE_SIZE / 2, SPRITE_SIZE / 2), g2);
+			}
+		} finally {
+			g2.dispose();
+		}
+	}
+
+	/**
+	 * Gets the atlas of a sprite size and device scale, rasterizing it on the first use.
+	 *
+	 * @param size   The logical size of a sprite.
+	 * @param scaleX The horizontal device scale.
+	 * @param scaleY The vertical device scale.
+	 * @return The atlas.
+	 */
+	public static PictogramAtlas get(final int size, final double scaleX, final double scaleY) {
+		// scales are kept to 1/100, enough for any screen and it bounds the number of atlases
+		final long sx = Math.round(scaleX * 100);
+		final long sy = Math.round(scaleY * 100);
+		final long key = (long) size << 40 | sx << 20 | sy;
+		PictogramAtlas atlas = ATLASES.get(key);
+		if (atlas == null) {
+			if (ATLASES.size() >= MAX_ATLASES) {
+				ATLASES.clear();
+			}
+			atlas = ATLASES.computeIfAbsent(key, k -> new PictogramAtlas(size, sx / 100.0, sy / 100.0));
+		}
+		return atlas;
+	}
+
+	/**
+	 * Draws the pictogram of the painter centered at the point, in the default sprite size.
+	 *
+	 * @param g       The Graphics object to draw on.
+	 * @param painter The pictogram.
+	 * @param centerX The x-coordinate of the center.
+	 * @param centerY The y-coordinate of the center.
+	 */
+	public static void draw(final Graphics g, final Painter painter, final int centerX, final int centerY) {
+		draw(g, painter, centerX, centerY, SPRITE_SIZE);
+	}
+
+	/**
+	 * Draws the pictogram of the painter centered at the point. Graphics with rotation or a very large scale
+	 * are drawn directly by the painter.
+	 *
+	 * @param g       The Graphics object to draw on.
+	 * @param painter The pictogram.
+	 * @param centerX The x-coordinate of the center.
+	 * @param centerY The y-coordinate of the center.
+	 * @param size    The logical size of the sprite.
+	 */
+	public static void draw(final Graphics g, final Painter painter, final int centerX, final int centerY, final int size) {
+		double scaleX = 1.0;
+		double scaleY = 1.0;
+		if (g instanceof Graphics2D g2) {
+			AffineTransform transform = g2.getTransform();
+			if (transform.getShearX() != 0 || transform.getShearY() != 0
+				|| transform.getScaleX() <= 0 || transform.getScaleY() <= 0
+				|| transform.getScaleX() > MAX_SCALE || transform.getScaleY() > MAX_SCALE
+			) {
+				painter.get().accept(new Point(centerX, centerY), g);
+				return;
+			}
+			scaleX = transform.getScaleX();
+			scaleY = transform.getScaleY();
+		}
+		get(size, scaleX, scaleY).drawSprite(g, painter, centerX, centerY);
+	}
+
+	/**
+	 * Blits the sprite of the painter centered at the point.
+	 *
+	 * @param g       The Graphics object to draw on.
+	 * @param painter The pictogram.
+	 * @param centerX The x-coordinate of the center.
+	 * @param centerY The y-coordinate of the center.
+	 */
+	public void drawSprite(final Graphics g, final Painter painter, final int centerX, final int centerY) {
+		final int x = centerX - size / 2;
+		final int y = centerY - size / 2;
+		final int sx = painter.ordinal() * pixelWidth;
+		g.drawImage(image, x, y, x + size, y + size, sx, 0, sx + pixelWidth, pixelHeight, null);
+	}
+
+	/**
+	 * Gets the logical size of a sprite.
+	 *
+	 * @return The size in pixels.
+	 */
+	public int getSize() {
+		return size;
+	}
+}
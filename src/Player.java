@@ -123,6 +123,15 @@ public class Player extends GameObject implements Serializable {
         return countSteps;
     }
 
+    /**
+     * Sets the count of steps taken, for a player restored from a saved game.
+     *
+     * @param countSteps The count of steps taken.
+     */
+    public void setCountSteps(int countSteps) {
+        this.countSteps = countSteps;
+    }
+
     /**
      * Gets the painter associated with the player's pictogram.
      *
@@ -139,7 +148,18 @@ public class Player extends GameObject implements Serializable {
      * @param g     The Graphics object for painting.
      */
     public void paint(Point point, Graphics g) {
-        painter.get().accept(point, g);
+        paint(point.x, point.y, g);
+    }
+
+    /**
+     * Paints the player's pictogram centered at the specified coordinates, as a sprite of {@link PictogramAtlas}.
+     *
+     * @param x The x-coordinate of the center.
+     * @param y The y-coordinate of the center.
+     * @param g The Graphics object for painting.
+     */
+    public void paint(int x, int y, Graphics g) {
+        PictogramAtlas.draw(g, painter, x, y);
     }
 
     /**
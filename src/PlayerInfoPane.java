@@ -210,19 +210,24 @@ public class PlayerInfoPane extends JPanel implements InfoPane {
 	 */
 	@Override
 	public void showInfo() {
-		this.setSelectedPane();
-
-		if (Objects.nonNull(player)) {
-			this.showSerialNumber("" + player.getSerialNumber());
-			this.showPlayerPictogram(player.getPictogramPainter());
-			this.showPlayerName(player.getPlayerName());
-			this.showPlayerPosition("" + (player.getPlayerPos() + 1));
-			this.showPlayerSteps("" + player.getCountSteps());
-		} else {
-			this.showPlayerPictogram("");
-			this.showPlayerName("");
-			this.showPlayerPosition("");
-			this.showPlayerSteps("");
+		final long paintStart = PaintMetrics.start();
+		try {
+			this.setSelectedPane();
+
+			if (Objects.nonNull(player)) {
+				this.showSerialNumber("" + player.getSerialNumber());
+				this.showPlayerPictogram(player.getPictogramPainter());
+				this.showPlayerName(player.getPlayerName());
+				this.showPlayerPosition("" + (player.getPlayerPos() + 1));
+				this.showPlayerSteps("" + player.getCountSteps());
+			} else {
+				this.showPlayerPictogram("");
+				this.showPlayerName("");
+				this.showPlayerPosition("");
+				this.showPlayerSteps("");
+			}
+		} finally {
+			PaintMetrics.record(PaintMetrics.Section.INFO_PANE, paintStart);
 		}
 	}
 }
\ No newline at end of file
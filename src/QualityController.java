@@ -0,0 +1,146 @@
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adapts the {@link RenderQuality} of the board to the speed of the machine. The views report how long their
+ * paints took, after {@value #MISSES_TO_STEP_DOWN} paints in a row over the frame budget the quality is lowered.
+ * It is raised again by one level at a pause of {@value #IDLE_MILLIS} ms in the painting, and only if at least
+ * {@value #HITS_TO_STEP_UP} paints in a row met the budget before the pause, so an idle board does not climb
+ * back level by level. The listeners render their layers again at the new level; that paint is slow by nature,
+ * it is neither counted nor starts the wait for a pause.
+ * <p>
+ * The system property {@code selkies.quality} pins the level: {@code high}, {@code medium} or {@code low};
+ * {@code auto} (the default) adapts it. {@code selkies.frameBudget} sets the budget in milliseconds, default 16.
+ * All methods must be called on the Event Dispatch Thread.
+ */
+public class QualityController {
+
+	public static final int DEFAULT_BUDGET_MILLIS = 16;
+
+	private static final int MISSES_TO_STEP_DOWN = 3;
+
+	private static final int HITS_TO_STEP_UP = 30;
+
+	private static final int IDLE_MILLIS = 1000;
+
+	private final long budgetNanos;
+
+	private final boolean adaptive;
+
+	private final List<Runnable> listeners = new ArrayList<>();
+
+	private final Timer idleTimer;
+
+	private RenderQuality quality;
+
+	private int misses;
+
+	private int hits;
+
+	// true from a change of the level until the paint it caused is reported
+	private boolean settling;
+
+	/**
+	 * Constructs a controller adapting the quality from {@link RenderQuality#HIGH}.
+	 *
+	 * @param budgetMillis The frame budget in milliseconds.
+	 */
+	public QualityController(final int budgetMillis) {
+		this(budgetMillis, RenderQuality.HIGH, true);
+	}
+
+	private QualityController(final int budgetMillis, final RenderQuality quality, final boolean adaptive) {
+		if (budgetMillis < 1) {
+			throw new IllegalArgumentException("Frame budget has to be positive, got " + budgetMillis);
+		}
+		this.budgetNanos = budgetMillis * 1_000_000L;
+		this.quality = quality;
+		this.adaptive = adaptive;
+		this.idleTimer = new Timer(IDLE_MILLIS, e -> idle());
+		this.idleTimer.setRepeats(false);
+	}
+
+	/**
+	 * Creates the controller configured by the system properties {@code selkies.quality}
+	 * and {@code selkies.frameBudget}.
+	 *
+	 * @return The controller.
+	 */
+	public static QualityController fromSystemProperties() {
+		int budget = Integer.getInteger("selkies.frameBudget", DEFAULT_BUDGET_MILLIS);
+		String mode = System.getProperty("selkies.quality", "auto");
+		if ("auto".equalsIgnoreCase(mode)) {
+			return new QualityController(budget);
+		}
+		try {
+			return new QualityController(budget, RenderQuality.valueOf(mode.toUpperCase()), false);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown selkies.quality " + mode + ", use auto, high, medium or low", e);
+		}
+	}
+
+	/**
+	 * Gets the current level.
+	 *
+	 * @return The level the layers are rendered at.
+	 */
+	public RenderQuality getQuality() {
+		return quality;
+	}
+
+	/**
+	 * Adds a listener called after the level changed.
+	 *
+	 * @param listener The listener, usually invalidating a cached layer.
+	 */
+	public void addListener(final Runnable listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Reports the duration of a paint.
+	 *
+	 * @param nanos The duration in nanoseconds.
+	 */
+	public void record(final long nanos) {
+		if (!adaptive) {
+			return;
+		}
+		if (settling) {
+			settling = false;
+			return;
+		}
+		if (nanos > budgetNanos) {
+			hits = 0;
+			if (++misses >= MISSES_TO_STEP_DOWN) {
+				setQuality(quality.lower());
+			}
+		} else {
+			misses = 0;
+			hits++;
+		}
+		idleTimer.restart();
+	}
+
+	/**
+	 * Raises the level by one after a pause of the painting which followed a run of paints within the budget.
+	 * The next level needs a new run, at the new level.
+	 */
+	private void idle() {
+		if (hits >= HITS_TO_STEP_UP) {
+			setQuality(quality.higher());
+		}
+	}
+
+	private void setQuality(final RenderQuality quality) {
+		misses = 0;
+		hits = 0;
+		if (this.quality == quality) {
+			return;
+		}
+		this.quality = quality;
+		settling = !listeners.isEmpty();
+		listeners.forEach(Runnable::run);
+	}
+}
@@ -0,0 +1,98 @@
+import java.awt.*;
+
+/**
+ * How carefully the obstacles are drawn. The level travels with the graphics as a rendering hint, so every
+ * layer can be rendered at its own level and a graphics without the hint, a thumbnail for example, is drawn
+ * at {@link #HIGH}.
+ */
+public enum RenderQuality {
+	/**
+	 * Antialiased and half transparent, smooth curves.
+	 */
+	HIGH(true, true, true),
+	/**
+	 * Half transparent, smooth curves, no antialiasing.
+	 */
+	MEDIUM(false, true, true),
+	/**
+	 * Opaque, curves flattened to a few lines, no antialiasing.
+	 */
+	LOW(false, false, false);
+
+	/**
+	 * Rendering hint holding the level, the values are the constants of this enum.
+	 */
+	public static final RenderingHints.Key KEY = new RenderingHints.Key(0) {
+		@Override
+		public boolean isCompatibleValue(final Object value) {
+			return value instanceof RenderQuality;
+		}
+
+		@Override
+		public String toString() {
+			return "Selkies render quality";
+		}
+	};
+
+	private final boolean antialiasing;
+
+	private final boolean translucent;
+
+	private final boolean smoothCurves;
+
+	RenderQuality(final boolean antialiasing, final boolean translucent, final boolean smoothCurves) {
+		this.antialiasing = antialiasing;
+		this.translucent = translucent;
+		this.smoothCurves = smoothCurves;
+	}
+
+	/**
+	 * Gets the level of a graphics.
+	 *
+	 * @param g2 The graphics.
+	 * @return The level of its hint, {@link #HIGH} without the hint.
+	 */
+	public static RenderQuality of(final Graphics2D g2) {
+		Object value = g2.getRenderingHint(KEY);
+		return value instanceof RenderQuality quality ? quality : HIGH;
+	}
+
+	/**
+	 * Sets the level as the hint of a graphics.
+	 *
+	 * @param g2 The graphics.
+	 */
+	public void applyTo(final Graphics2D g2) {
+		g2.setRenderingHint(KEY, this);
+	}
+
+	public boolean isAntialiasing() {
+		return antialiasing;
+	}
+
+	public boolean isTranslucent() {
+		return translucent;
+	}
+
+	public boolean isSmoothCurves() {
+		return smoothCurves;
+	}
+
+	/**
+	 * Gets the next lower level.
+	 *
+	 * @return The lower level, this one if it is the lowest.
+	 */
+	public RenderQuality lower() {
+		return this == LOW ? LOW : values()[ordinal() + 1];
+	}
+
+	/**
+	 * Gets the next higher level.
+	 *
+	 * @return The higher level, this one if it is the highest.
+	 */
+	public RenderQuality higher() {
+		return this == HIGH ? HIGH : values()[ordinal() - 1];
+	}
+}
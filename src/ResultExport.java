@@ -0,0 +1,308 @@
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Headless export of results for analysis, as NDJSON or CSV through a {@link ResultWriter}. Every record is
+ * written as soon as it is known, so the output of any size streams in constant memory.
+ * <ul>
+ * <li>{@code Main simulate [--games <n>] [--players <n>] [--columns <n>] [--rows <n>] [--seed <n>] [--turns]}
+ * plays games on a board with obstacles placed like in the game and writes a record per game: its turns,
+ * winner and obstacle hits; with {@code --turns} a record per turn: the seat, dice, cells, steps and obstacle.</li>
+ * <li>{@code Main export <save, library, archive or directory>...} writes a record per player of every saved game:
+ * name, painter, cell, steps and whether it is the player's turn. A saved game holds only the state it was saved
+ * in, not its turns.</li>
+ * <li>{@code Main export --turns <turn log>...} writes a record per turn of every game of a {@link TurnLog}, with
+ * the columns of the simulated turns. The turns of a game are numbered from the state its log starts from, the
+ * start of a new game or the state a game was loaded in.</li>
+ * </ul>
+ * Both take {@code --format ndjson|csv} (default NDJSON) and {@code --out <file>} (default the standard output).
+ */
+public final class ResultExport {
+
+	private static final String[] GAME_COLUMNS = {"game", "turns", "winner", "obstacleHits"};
+
+	private static final String[] TURN_COLUMNS = {
+		"game", "turn", "seat", "player", "dice", "from", "to", "position", "steps", "obstacle"
+	};
+
+	private static final String[] PLAYER_COLUMNS = {
+		"game", "source", "player", "name", "painter", "position", "steps", "current"
+	};
+
+	private ResultExport() {
+	}
+
+	/**
+	 * Plays games and writes their records.
+	 *
+	 * @param board       The compiled board.
+	 * @param playerCount The number of players.
+	 * @param games       The number of games.
+	 * @param seed        The seed of the dice.
+	 * @param turns       True for a record per turn, false for a record per game.
+	 * @param writer      The target, with the columns of the records.
+	 * @throws IOException if the target can't be written.
+	 */
+	public static void simulate(final BoardIndex board, final int playerCount, final long games, final long seed,
+								final boolean turns, final ResultWriter writer) throws IOException {
+		GameEngine engine = new GameEngine(board, new SplittableRandom(seed));
+		for (long game = 1; game <= games; game++) {
+			engine.newGame(playerCount);
+			int hits = 0;
+			int turn = 0;
+			while (!engine.isFinished() && turn < MonteCarloSimulator.DEFAULT_MAX_TURNS) {
+				int seat = engine.getCurrentSeat();
+				int from = engine.getPosition(seat);
+				int dice = engine.rollDice();
+				int position = engine.playTurn(dice);
+				turn++;
+				// the first obstacle of a chain, where the dice left the player
+				int to = GameEngine.bounce(from + dice, engine.getLastCell());
+				int obstacle = board.obstacleAt(to);
+				if (obstacle >= 0) {
+					hits++;
+				}
+				if (turns) {
+					writer.begin()
+						.field(game)
+						.field(turn)
+						.field(seat)
+						.field(seat + 1)
+						.field(dice)
+						.field(from)
+						.field(to)
+						.field(position)
+						.field(engine.getSteps(seat))
+						.field(obstacle)
+						.end();
+				}
+			}
+			if (!turns) {
+				writer.begin()
+					.field(game)
+					.field(turn)
+					.field(engine.isFinished() ? engine.getWinner() + 1 : -1)
+					.field(hits)
+					.end();
+			}
+		}
+	}
+
+	/**
+	 * Writes the players of a save, all games of a library or an archive, or all saves of a directory.
+	 *
+	 * @param input  The input.
+	 * @param writer The target, with the player columns.
+	 * @param games  The number of games written before, the games are numbered on.
+	 * @return The number of games written.
+	 * @throws IOException if the input or the target can't be read or written.
+	 */
+	public static long export(final Path input, final ResultWriter writer, final long games) throws IOException {
+		if (Files.isDirectory(input)) {
+			List<Path> files;
+			try (Stream<Path> walk = Files.walk(input)) {
+				files = walk.filter(Files::isRegularFile).sorted().toList();
+			}
+			long written = 0;
+			for (Path file : files) {
+				written += export(file, writer, games + written);
+			}
+			return written;
+		}
+		String source = input.toString();
+		String name = input.getFileName().toString();
+		if (name.endsWith(".lib")) {
+			try (SaveLibrary library = SaveLibrary.open(input)) {
+				for (int slot = 0; slot < library.size(); slot++) {
+					writePlayers(library.load(slot), games + slot + 1, source + "#" + (slot + 1), writer);
+				}
+				return library.size();
+			}
+		}
+		if (name.endsWith(".slka")) {
+			long[] count = {0};
+			IOException[] failure = {null};
+			GameArchive.read(input, Runtime.getRuntime().availableProcessors(), save -> {
+				count[0]++;
+				if (failure[0] == null) {
+					try {
+						writePlayers(save, games + count[0], source, writer);
+					} catch (IOException e) {
+						failure[0] = e;
+					}
+				}
+			});
+			if (failure[0] != null) {
+				throw failure[0];
+			}
+			return count[0];
+		}
+		try {
+			writePlayers(Save.load(input.toFile()), games + 1, source, writer);
+			return 1;
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Not a saved game: " + input, e);
+		}
+	}
+
+	/**
+	 * Writes a record per turn of every game of a turn log.
+	 *
+	 * @param log    The turn log.
+	 * @param writer The target, with the turn columns.
+	 * @param games  The number of games written before, the games are numbered on.
+	 * @return The number of games written.
+	 * @throws IOException if the log or the target can't be read or written.
+	 */
+	public static long exportTurns(final Path log, final ResultWriter writer, final long games) throws IOException {
+		long[] game = {games};
+		int[] turn = {0};
+		BoardIndex[] board = {null};
+		return TurnLog.replay(log, new MoveJournal.ReplayListener() {
+			@Override
+			public void gameStarted(final Save started) {
+				game[0]++;
+				turn[0] = 0;
+				board[0] = BoardIndex.of(started.getColumns() * started.getRows(), started.getObstacleList());
+			}
+
+			@Override
+			public void turnReplayed(final Save replayed, final int seat, final int dice, final int from,
+									 final int to, final int destination) throws IOException {
+				int steps = 0;
+				for (Player player : replayed.getPlayerList()) {
+					if (player.getSerialNumber() == seat + 1) {
+						steps = player.getCountSteps();
+					}
+				}
+				writer.begin()
+					.field(game[0])
+					.field(++turn[0])
+					.field(seat)
+					.field(seat + 1)
+					.field(dice)
+					.field(from)
+					.field(to)
+					.field(destination)
+					.field(steps)
+					.field(board[0].obstacleAt(to))
+					.end();
+			}
+		});
+	}
+
+	private static void writePlayers(final Save save, final long game, final String source, final ResultWriter writer)
+		throws IOException {
+		for (Player player : save.getPlayerList()) {
+			writer.begin()
+				.field(game)
+				.field(source)
+				.field(player.getSerialNumber())
+				.field(player.getPlayerName())
+				.field(player.getPictogramPainter().name())
+				.field(player.getPlayerPos())
+				.field(player.getCountSteps())
+				.field(player.isSelected())
+				.end();
+		}
+	}
+
+	/**
+	 * Command line entry, see the class description for the arguments.
+	 *
+	 * @param args The command, {@code simulate} or {@code export}, followed by its options.
+	 */
+	public static void main(String[] args) throws IOException {
+		boolean simulate = args.length > 0 && args[0].equals("simulate");
+		BoardLayout layout = BoardLayout.fromSystemProperties();
+		int columns = layout.getColumns();
+		int rows = layout.getRows();
+		int players = 2;
+		long games = 1000;
+		long seed = System.nanoTime();
+		boolean turns = false;
+		ResultWriter.Format format = ResultWriter.Format.NDJSON;
+		Path out = null;
+		List<Path> inputs = new ArrayList<>();
+		try {
+			for (int i = 1; i < args.length; i++) {
+				switch (args[i]) {
+					case "--games" -> games = Long.parseLong(args[++i]);
+					case "--players" -> players = Integer.parseInt(args[++i]);
+					case "--columns" -> columns = Integer.parseInt(args[++i]);
+					case "--rows" -> rows = Integer.parseInt(args[++i]);
+					case "--seed" -> seed = Long.parseLong(args[++i]);
+					case "--turns" -> turns = true;
+					case "--format" -> format = ResultWriter.Format.of(args[++i]);
+					case "--out" -> out = Path.of(args[++i]);
+					default -> inputs.add(Path.of(args[i]));
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+			usage();
+			return;
+		}
+		if (simulate ? !inputs.isEmpty() || games < 0 || players < 1 : inputs.isEmpty()) {
+			usage();
+			return;
+		}
+
+		long start = System.nanoTime();
+		OutputStream target = out != null
+			? Files.newOutputStream(out)
+			: new FileOutputStream(FileDescriptor.out);
+		String[] header = turns ? TURN_COLUMNS : simulate ? GAME_COLUMNS : PLAYER_COLUMNS;
+		try (ResultWriter writer = new ResultWriter(new BufferedOutputStream(target, 64 * 1024), format, header)) {
+			if (simulate) {
+				BoardLayout board = new BoardLayout(columns, rows);
+				simulate(createBoard(board, seed), players, games, seed, turns, writer);
+			} else if (turns) {
+				long written = 0;
+				for (Path input : inputs) {
+					written += exportTurns(input, writer, written);
+				}
+			} else {
+				long written = 0;
+				for (Path input : inputs) {
+					written += export(input, writer, written);
+				}
+			}
+			writer.flush();
+			long nanos = System.nanoTime() - start;
+			System.err.println("Wrote %d records in %d ms, %.0f records/s".formatted(
+				writer.getRecords(), nanos / 1_000_000, writer.getRecords() * 1e9 / Math.max(nanos, 1)));
+		}
+	}
+
+	/**
+	 * Places obstacles like the game does, one per ten cells, ladders and selkies in turn.
+	 */
+	private static BoardIndex createBoard(final BoardLayout layout, final long seed) {
+		int count = layout.getCellCount() / 10;
+		int[] cells = new ObstaclePlacer(layout, seed).place(count);
+		int[] starts = new int[count];
+		int[] ends = new int[count];
+		for (int i = 0; i < count; i++) {
+			boolean ladder = i % 2 == 0;
+			starts[i] = ladder ? cells[2 * i] : cells[2 * i + 1];
+			ends[i] = ladder ? cells[2 * i + 1] : cells[2 * i];
+		}
+		return BoardIndex.compile(layout.getCellCount(), starts, ends);
+	}
+
+	private static void usage() {
+		System.err.println("Usage: Main simulate [--games <n>] [--players <n>] [--columns <n>] [--rows <n>]"
+			+ " [--seed <n>] [--turns] [--format ndjson|csv] [--out <file>]\n"
+			+ "       Main export [--format ndjson|csv] [--out <file>] <save, library, archive or directory>...\n"
+			+ "       Main export --turns [--format ndjson|csv] [--out <file>] <turn log>...");
+	}
+}
@@ -0,0 +1,349 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams flat records as NDJSON or CSV. The records are written field by field into one reused buffer, numbers
+ * are formatted without allocation, nothing is kept after a record is written:
+ * <pre>
+ * writer.begin().field(game).field(turn).field(name).end();
+ * </pre>
+ * The fields are given in the order of the columns of the constructor. NDJSON writes an object per line,
+ * CSV a header line and a quoted string where needed. Not thread safe.
+ */
+public final class ResultWriter implements Closeable, Flushable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// longest field written without a check: a long or a double
+	private static final int NUMBER_SIZE = 32;
+
+	private static final char[] TRUE = "true".toCharArray();
+
+	private static final char[] FALSE = "false".toCharArray();
+
+	private static final char[] NULL = "null".toCharArray();
+
+	/**
+	 * Formats of the output.
+	 */
+	public enum Format {
+		/**
+		 * One JSON object per line.
+		 */
+		NDJSON,
+		/**
+		 * Comma separated values with a header line.
+		 */
+		CSV;
+
+		/**
+		 * Gets a format by its name, ignoring case.
+		 *
+		 * @param name {@code ndjson} or {@code csv}.
+		 * @return The format.
+		 */
+		public static Format of(final String name) {
+			try {
+				return valueOf(name.toUpperCase());
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Unknown format " + name + ", use ndjson or csv", e);
+			}
+		}
+	}
+
+	private final Writer out;
+
+	private final Format format;
+
+	// per column what precedes its value: {"name": or ,"name": for NDJSON, a comma for CSV
+	private final char[][] prefixes;
+
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	private int length;
+
+	private int column = -1;
+
+	private long records;
+
+	/**
+	 * Starts the output, for CSV with the header line.
+	 *
+	 * @param out     The target, UTF-8, closed with the writer.
+	 * @param format  The format.
+	 * @param columns The names of the columns.
+	 * @throws IOException if the target can't be written.
+	 */
+	public ResultWriter(final OutputStream out, final Format format, final String... columns) throws IOException {
+		if (columns.length == 0) {
+			throw new IllegalArgumentException("At least one column is needed");
+		}
+		this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+		this.format = format;
+		this.prefixes = new char[columns.length][];
+		for (int i = 0; i < columns.length; i++) {
+			if (format == Format.NDJSON) {
+				StringBuilder prefix = new StringBuilder(i == 0 ? "{" : ",");
+				appendJson(prefix, columns[i]);
+				prefixes[i] = prefix.append(':').toString().toCharArray();
+			} else {
+				prefixes[i] = i == 0 ? new char[0] : new char[]{','};
+			}
+		}
+		if (format == Format.CSV) {
+			for (int i = 0; i < columns.length; i++) {
+				append(prefixes[i]);
+				appendCsv(columns[i]);
+			}
+			append('\n');
+		}
+	}
+
+	/**
+	 * Starts a record.
+	 *
+	 * @return This writer.
+	 */
+	public ResultWriter begin() {
+		if (column >= 0) {
+			throw new IllegalStateException("Record is not ended");
+		}
+		column = 0;
+		return this;
+	}
+
+	/**
+	 * Writes the next field as a number.
+	 *
+	 * @param value The value.
+	 * @return This writer.
+	 * @throws IOException if the target can't be written.
+	 */
+	public ResultWriter field(final long value) throws IOException {
+		prefix(NUMBER_SIZE);
+		if (value == Long.MIN_VALUE) {
+			append(Long.toString(value).toCharArray());
+			return this;
+		}
+		long rest = value;
+		if (rest < 0) {
+			buffer[length++] = '-';
+			rest = -rest;
+		}
+		int end = length + digits(rest);
+		length = end;
+		do {
+			buffer[--end] = (char) ('0' + rest % 10);
+			rest /= 10;
+		} while (rest != 0);
+		return this;
+	}
+
+	/**
+	 * Writes the next field as a number, NaN and the infinities as null in NDJSON and empty in CSV.
+	 *
+	 * @param value The value.
+	 * @return This writer.
+	 * @throws IOException if the target can't be written.
+	 */
+	public ResultWriter field(final double value) throws IOException {
+		if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			return field((long) value);
+		}
+		prefix(NUMBER_SIZE);
+		if (Double.isFinite(value)) {
+			append(Double.toString(value).toCharArray());
+		} else if (format == Format.NDJSON) {
+			append(NULL);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes the next field as a boolean.
+	 *
+	 * @param value The value.
+	 * @return This writer.
+	 * @throws IOException if the target can't be written.
+	 */
+	public ResultWriter field(final boolean value) throws IOException {
+		prefix(NUMBER_SIZE);
+		append(value ? TRUE : FALSE);
+		return this;
+	}
+
+	/**
+	 * Writes the next field as a string, null as null in NDJSON and empty in CSV.
+	 *
+	 * @param value The value.
+	 * @return This writer.
+	 * @throws IOException if the target can't be written.
+	 */
+	public ResultWriter field(final CharSequence value) throws IOException {
+		prefix(NUMBER_SIZE);
+		if (value == null) {
+			if (format == Format.NDJSON) {
+				append(NULL);
+			}
+		} else if (format == Format.NDJSON) {
+			appendJson(value);
+		} else {
+			appendCsv(value);
+		}
+		return this;
+	}
+
+	/**
+	 * Ends the record, all columns have to be written.
+	 *
+	 * @throws IOException if the target can't be written.
+	 */
+	public void end() throws IOException {
+		if (column != prefixes.length) {
+			throw new IllegalStateException("Record has %d of %d fields".formatted(column, prefixes.length));
+		}
+		reserve(2);
+		if (format == Format.NDJSON) {
+			buffer[length++] = '}';
+		}
+		buffer[length++] = '\n';
+		column = -1;
+		records++;
+	}
+
+	/**
+	 * Gets the number of records written.
+	 *
+	 * @return The number of records.
+	 */
+	public long getRecords() {
+		return records;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain();
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			drain();
+		} finally {
+			out.close();
+		}
+	}
+
+	private void prefix(final int room) throws IOException {
+		if (column < 0 || column >= prefixes.length) {
+			throw new IllegalStateException(column < 0 ? "Record is not begun" : "Record has too many fields");
+		}
+		char[] prefix = prefixes[column++];
+		reserve(prefix.length + room);
+		System.arraycopy(prefix, 0, buffer, length, prefix.length);
+		length += prefix.length;
+	}
+
+	private static int digits(final long value) {
+		int digits = 1;
+		for (long limit = 10; digits < 19 && value >= limit; limit *= 10) {
+			digits++;
+		}
+		return digits;
+	}
+
+	private void appendJson(final CharSequence value) throws IOException {
+		append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"' -> append('\\', '"');
+				case '\\' -> append('\\', '\\');
+				case '\n' -> append('\\', 'n');
+				case '\r' -> append('\\', 'r');
+				case '\t' -> append('\\', 't');
+				default -> {
+					if (c < 0x20) {
+						append("\\u%04x".formatted((int) c).toCharArray());
+					} else {
+						append(c);
+					}
+				}
+			}
+		}
+		append('"');
+	}
+
+	private static void appendJson(final StringBuilder sb, final String name) {
+		sb.append('"');
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\');
+			}
+			sb.append(c);
+		}
+		sb.append('"');
+	}
+
+	private void appendCsv(final CharSequence value) throws IOException {
+		boolean quote = false;
+		for (int i = 0; i < value.length() && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if (!quote) {
+			for (int i = 0; i < value.length(); i++) {
+				append(value.charAt(i));
+			}
+			return;
+		}
+		append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				append('"');
+			}
+			append(c);
+		}
+		append('"');
+	}
+
+	private void append(final char c) throws IOException {
+		reserve(1);
+		buffer[length++] = c;
+	}
+
+	private void append(final char c1, final char c2) throws IOException {
+		reserve(2);
+		buffer[length++] = c1;
+		buffer[length++] = c2;
+	}
+
+	private void append(final char[] chars) throws IOException {
+		for (int offset = 0; offset < chars.length; ) {
+			reserve(1);
+			int n = Math.min(chars.length - offset, buffer.length - length);
+			System.arraycopy(chars, offset, buffer, length, n);
+			length += n;
+			offset += n;
+		}
+	}
+
+	private void reserve(final int room) throws IOException {
+		if (length + room > buffer.length) {
+			drain();
+		}
+	}
+
+	private void drain() throws IOException {
+		out.write(buffer, 0, length);
+		length = 0;
+	}
+}
@@ -1,10 +1,11 @@
 import javax.swing.*;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.List;
 
@@ -21,6 +22,11 @@ public class Save implements Serializable {
 
 	private List<Obstacle> obstacleList;
 
+	// 0 for saves of the serialized format, which did not record the board
+	private int columns;
+
+	private int rows;
+
 	/**
 	 * Gets the list of players in the game.
 	 *
@@ -68,6 +74,78 @@ public class Save implements Serializable {
 		this.obstacleList = obstacleList;
 	}
 
+	/**
+	 * Initializes the Save object with specified player and obstacle lists on a board.
+	 *
+	 * @param playerList   The list of players to set.
+	 * @param obstacleList The list of obstacles to set.
+	 * @param layout       The board of the game.
+	 */
+	public Save(List<Player> playerList, List<Obstacle> obstacleList, BoardLayout layout) {
+		this(playerList, obstacleList);
+		setBoard(layout.getColumns(), layout.getRows());
+	}
+
+	/**
+	 * Gets the number of columns of the saved board.
+	 *
+	 * @return The number of columns, 0 if the save does not record the board.
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Gets the number of rows of the saved board.
+	 *
+	 * @return The number of rows, 0 if the save does not record the board.
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Sets the size of the saved board.
+	 *
+	 * @param columns The number of columns, 0 if unknown.
+	 * @param rows    The number of rows, 0 if unknown.
+	 */
+	public void setBoard(int columns, int rows) {
+		this.columns = columns;
+		this.rows = rows;
+	}
+
+	/**
+	 * Gets the saved board.
+	 *
+	 * @return The layout, null if the save does not record the board.
+	 */
+	public BoardLayout getLayout() {
+		return columns > 0 && rows > 0 ? new BoardLayout(columns, rows) : null;
+	}
+
+	/**
+	 * Checks that the serial numbers of the players are 1 to the number of players, each used once,
+	 * they are the seats of the game.
+	 *
+	 * @param players The players.
+	 * @throws IllegalArgumentException if a serial number is missing, out of range or repeated.
+	 */
+	static void checkSerialNumbers(final List<Player> players) {
+		boolean[] taken = new boolean[players.size() + 1];
+		for (Player player : players) {
+			Integer serial = player.getSerialNumber();
+			if (serial == null || serial < 1 || serial > players.size()) {
+				throw new IllegalArgumentException("player %s has the serial number %s, expected 1 to %d"
+					.formatted(player.getPlayerName(), serial, players.size()));
+			}
+			if (taken[serial]) {
+				throw new IllegalArgumentException("the serial number %d is used twice".formatted(serial));
+			}
+			taken[serial] = true;
+		}
+	}
+
 	// https://docs.oracle.com/javase/tutorial/uiswing/components/filechooser.html
 
 	/**
@@ -98,40 +176,84 @@ public class Save implements Serializable {
 	}
 
 	/**
-	 * Saves the current game state to a file named "save.txt".
+	 * Asks the user for the file to save a game to.
+	 *
+	 * @return The chosen file or null if the dialog was cancelled.
+	 */
+	public static File chooseSaveFile() {
+		String path = getPathFile(TypeDialog.SAVE_DIALOG);
+		return path != null ? new File(path) : null;
+	}
+
+	/**
+	 * Asks the user for the saved game to load.
+	 *
+	 * @return The chosen file or null if the dialog was cancelled.
+	 */
+	public static File chooseLoadFile() {
+		String path = getPathFile(TypeDialog.OPEN_DIALOG);
+		return path != null ? new File(path) : null;
+	}
+
+	/**
+	 * Encodes the current game state in the compact format of {@link SaveCodec}.
+	 *
+	 * @return The encoded game.
+	 * @throws IOException if the game can't be encoded.
+	 */
+	public byte[] toBytes() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		SaveCodec.write(this, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Saves the current game state to a file in the compact format of {@link SaveCodec}, without any dialog.
+	 * The file is replaced atomically, see {@link GameIO#writeAtomically}.
+	 *
+	 * @param file The target file.
+	 * @throws IOException if the file can't be written.
 	 */
-	public void save() {
-		try (
-			FileOutputStream fileOut = new FileOutputStream(getPathFile(TypeDialog.SAVE_DIALOG));
-			ObjectOutputStream objectOut = new ObjectOutputStream(fileOut)
-		) {
-			objectOut.writeObject(this);
-		} catch (Exception e) {
-			// Handle exceptions appropriately, e.g., log or print the stack trace.
-			e.printStackTrace();
+	public void save(File file) throws IOException {
+		GameIO.writeAtomically(file.toPath(), toBytes(), null);
+	}
+
+	/**
+	 * Loads a saved game state from a file, without any dialog. Both the compact format of {@link SaveCodec}
+	 * and the serialized format of older versions are read.
+	 *
+	 * @param file The saved game.
+	 * @return The loaded Save object.
+	 * @throws IOException            if the file can't be read.
+	 * @throws ClassNotFoundException if the file is not a saved game.
+	 */
+	public static Save load(File file) throws IOException, ClassNotFoundException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			return read(in, file.toString());
 		}
 	}
 
 	/**
-	 * Loads a saved game state from a user-selected file.
+	 * Reads a saved game state in the compact or in the serialized format.
 	 *
-	 * @return The loaded Save object or null if loading fails.
+	 * @param in   The source, supporting mark and reset.
+	 * @param name The name of the source for the messages.
+	 * @return The loaded Save object.
+	 * @throws IOException            if the source can't be read.
+	 * @throws ClassNotFoundException if the source is not a saved game.
 	 */
-	public static Save load() {
-		Save loadedObject = null;
-		try {
-			ObjectInputStream
-				objectIn =
-				new ObjectInputStream(new FileInputStream(getPathFile(TypeDialog.OPEN_DIALOG)));
-			loadedObject = (Save) objectIn.readObject();
-		} catch (FileNotFoundException e) {
-			// Handle file not found exception.
-			e.printStackTrace();
-		} catch (Exception e) {
-			// Handle other exceptions, e.g., ClassNotFoundException or IOException.
-			e.printStackTrace();
+	static Save read(InputStream in, String name) throws IOException, ClassNotFoundException {
+		in.mark(4);
+		byte[] header = in.readNBytes(4);
+		in.reset();
+		if (SaveCodec.isCompact(header)) {
+			return SaveCodec.read(in);
+		}
+		Object object = new ObjectInputStream(in).readObject();
+		if (!(object instanceof Save save)) {
+			throw new IOException("Not a saved game: " + name);
 		}
-		return loadedObject;
+		return save;
 	}
 
 	private enum TypeDialog {
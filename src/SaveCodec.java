@@ -0,0 +1,218 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary format of a {@link Save}. Only the logical state is stored, the views are rebuilt by the loader:
+ * <pre>
+ * int    magic "SLKS"
+ * byte   version
+ * varint columns, rows       0 if the board is unknown
+ * varint current seat + 1    0 if no player is selected
+ * varint player count
+ *        per player: UTF name, byte painter, varint serial number, varint steps, varint cell
+ * varint obstacle count
+ *        per obstacle: byte kind, varint start cell, varint end cell
+ * int    CRC32 of all bytes above
+ * </pre>
+ * Varints are unsigned LEB128, so a cell of the default board takes one byte and a game of the default board
+ * about a hundred bytes. A reader of version {@value #VERSION} rejects newer versions.
+ */
+public final class SaveCodec {
+
+	public static final int MAGIC = 0x534C4B53;
+
+	public static final int VERSION = 1;
+
+	private static final int MUNRO = 0;
+
+	private static final int SELKIE = 1;
+
+	private static final int MAX_PLAYERS = 255;
+
+	private static final int MAX_OBSTACLES = BoardLayout.MAX_SIZE * BoardLayout.MAX_SIZE;
+
+	private SaveCodec() {
+	}
+
+	/**
+	 * Checks whether a file starts with the magic of this format.
+	 *
+	 * @param header The first four bytes of the file.
+	 * @return True for the compact format, false for a serialized legacy save.
+	 */
+	public static boolean isCompact(final byte[] header) {
+		return header.length >= 4
+			&& ((header[0] & 0xFF) << 24 | (header[1] & 0xFF) << 16 | (header[2] & 0xFF) << 8 | header[3] & 0xFF) == MAGIC;
+	}
+
+	/**
+	 * Writes a saved game, the stream is flushed but not closed.
+	 *
+	 * @param save The saved game.
+	 * @param out  The target.
+	 * @throws IOException if the target can't be written.
+	 * @throws IllegalArgumentException if the save holds an obstacle of an unknown kind.
+	 */
+	public static void write(final Save save, final OutputStream out) throws IOException {
+		CRC32 crc = new CRC32();
+		DataOutputStream data = new DataOutputStream(new CheckedOutputStream(out, crc));
+		data.writeInt(MAGIC);
+		data.writeByte(VERSION);
+		writeVarInt(data, save.getColumns());
+		writeVarInt(data, save.getRows());
+		List<Player> players = save.getPlayerList();
+		int selected = 0;
+		for (Player player : players) {
+			if (player.isSelected()) {
+				selected = player.getSerialNumber();
+			}
+		}
+		writeVarInt(data, selected);
+		writeVarInt(data, players.size());
+		for (Player player : players) {
+			data.writeUTF(player.getPlayerName() != null ? player.getPlayerName() : "");
+			data.writeByte(player.getPictogramPainter().ordinal());
+			writeVarInt(data, player.getSerialNumber());
+			writeVarInt(data, player.getCountSteps());
+			writeVarInt(data, player.getPlayerPos());
+		}
+		List<Obstacle> obstacles = save.getObstacleList();
+		writeVarInt(data, obstacles.size());
+		for (Obstacle obstacle : obstacles) {
+			data.writeByte(kindOf(obstacle));
+			writeVarInt(data, obstacle.getStartPosition());
+			writeVarInt(data, obstacle.getEndPosition());
+		}
+		// the checksum itself is not part of the checksum
+		long checksum = crc.getValue();
+		data.flush();
+		new DataOutputStream(out).writeInt((int) checksum);
+		out.flush();
+	}
+
+	/**
+	 * Reads a saved game. The obstacles are not attached to any view yet, the players keep their cells and steps,
+	 * the player of the current turn is selected.
+	 *
+	 * @param in The source, positioned at the magic.
+	 * @return The saved game.
+	 * @throws IOException if the source can't be read, is truncated, corrupted or of a newer version.
+	 */
+	public static Save read(final InputStream in) throws IOException {
+		CRC32 crc = new CRC32();
+		DataInputStream data = new DataInputStream(new CheckedInputStream(in, crc));
+		try {
+			if (data.readInt() != MAGIC) {
+				throw new IOException("Not a saved game");
+			}
+			int version = data.readUnsignedByte();
+			if (version < 1 || version > VERSION) {
+				throw new IOException("Unsupported save version " + version + ", supported up to " + VERSION);
+			}
+			int columns = readVarInt(data);
+			int rows = readVarInt(data);
+			int selected = readVarInt(data);
+			int playerCount = readCount(data, MAX_PLAYERS, "players");
+			List<Player> players = new ArrayList<>(playerCount);
+			for (int i = 0; i < playerCount; i++) {
+				String name = data.readUTF();
+				int painter = data.readUnsignedByte();
+				if (painter >= Painter.values().length) {
+					throw new IOException("Unknown painter " + painter);
+				}
+				Player player = new Player(Painter.values()[painter]);
+				player.setPlayerName(name.isEmpty() ? null : name);
+				player.setSerialNumber(readVarInt(data));
+				int steps = readVarInt(data);
+				player.setPlayerPos(readVarInt(data));
+				player.setCountSteps(steps);
+				player.setSelected(player.getSerialNumber() == selected);
+				players.add(player);
+			}
+			int obstacleCount = readCount(data, MAX_OBSTACLES, "obstacles");
+			List<Obstacle> obstacles = new ArrayList<>(Math.min(obstacleCount, 1024));
+			for (int i = 0; i < obstacleCount; i++) {
+				int kind = data.readUnsignedByte();
+				Obstacle obstacle = switch (kind) {
+					case MUNRO -> new Munro();
+					case SELKIE -> new Selkie();
+					default -> throw new IOException("Unknown obstacle kind " + kind);
+				};
+				obstacle.setStartPosition(readVarInt(data));
+				obstacle.setEndPosition(readVarInt(data));
+				obstacles.add(obstacle);
+			}
+			long checksum = crc.getValue();
+			if ((int) checksum != new DataInputStream(in).readInt()) {
+				throw new IOException("Saved game is corrupted, checksum mismatch");
+			}
+			if (selected > playerCount) {
+				throw new IOException("Selected player %d of %d players".formatted(selected, playerCount));
+			}
+			try {
+				Save.checkSerialNumbers(players);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Invalid saved game, " + e.getMessage(), e);
+			}
+			Save save = new Save(players, obstacles);
+			save.setBoard(columns, rows);
+			return save;
+		} catch (EOFException e) {
+			throw new IOException("Saved game is truncated", e);
+		}
+	}
+
+	private static int kindOf(final Obstacle obstacle) {
+		if (obstacle instanceof Munro) {
+			return MUNRO;
+		}
+		if (obstacle instanceof Selkie) {
+			return SELKIE;
+		}
+		throw new IllegalArgumentException("Unknown obstacle " + obstacle.getClass().getName());
+	}
+
+	private static int readCount(final DataInputStream data, final int max, final String what) throws IOException {
+		int count = readVarInt(data);
+		if (count > max) {
+			throw new IOException("Too many %s: %d, at most %d".formatted(what, count, max));
+		}
+		return count;
+	}
+
+	private static void writeVarInt(final DataOutputStream data, final int value) throws IOException {
+		if (value < 0) {
+			throw new IllegalArgumentException("Negative value " + value);
+		}
+		int rest = value;
+		while ((rest & ~0x7F) != 0) {
+			data.writeByte(rest & 0x7F | 0x80);
+			rest >>>= 7;
+		}
+		data.writeByte(rest);
+	}
+
+	private static int readVarInt(final DataInputStream data) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = data.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				if (value < 0) {
+					break;
+				}
+				return value;
+			}
+		}
+		throw new IOException("Malformed number");
+	}
+}
@@ -0,0 +1,504 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Many saved games in one file. The file starts with a fixed-size index of headers, one per slot, followed by the
+ * games in the format of {@link SaveCodec}:
+ * <pre>
+ * header   {@value #FILE_HEADER_SIZE} bytes: magic "SLKL", version, capacity, count, end of the data
+ * index    capacity x {@value #ENTRY_SIZE} bytes: offset and length of the game, turns, timestamp,
+ *          hash and size of the board, players and their names
+ * data     the games, appended
+ * </pre>
+ * The index is memory mapped, so listing the slots reads only the headers and a slot is found by its number
+ * without any scan. A game and its header are written and forced to the disk before the count is raised, and the
+ * count is forced after it, so a write torn by a crash leaves the earlier slots intact and a returned append
+ * survives a crash. A full index is doubled by rewriting the file once, the offsets of the games
+ * are relative to the data and stay valid.
+ * <p>
+ * The system property {@code selkies.library} sets the file of {@link #openDefault()},
+ * by default {@code .selkies/saves.lib} in the home directory. The methods are thread safe.
+ */
+public final class SaveLibrary implements Closeable {
+
+	public static final int FILE_HEADER_SIZE = 64;
+
+	public static final int ENTRY_SIZE = 128;
+
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	private static final int MAGIC = 0x534C4B4C;
+
+	private static final int VERSION = 1;
+
+	// Layout of an entry of the index
+	private static final int OFFSET = 0;
+
+	private static final int LENGTH = 8;
+
+	private static final int TURNS = 12;
+
+	private static final int TIMESTAMP = 16;
+
+	private static final int BOARD_HASH = 24;
+
+	private static final int COLUMNS = 32;
+
+	private static final int ROWS = 34;
+
+	private static final int PLAYERS = 36;
+
+	private static final int NAMES_LENGTH = 37;
+
+	private static final int NAMES = 38;
+
+	private static final int MAX_NAMES_BYTES = ENTRY_SIZE - NAMES;
+
+	// Layout of the file header
+	private static final int HEADER_CAPACITY = 8;
+
+	private static final int HEADER_COUNT = 12;
+
+	private static final int HEADER_DATA_END = 16;
+
+	/**
+	 * Header of a slot, read from the index without loading the game.
+	 */
+	public static final class Entry {
+
+		private final int slot;
+
+		private final long timestamp;
+
+		private final int turns;
+
+		private final long boardHash;
+
+		private final int columns;
+
+		private final int rows;
+
+		private final int playerCount;
+
+		private final String names;
+
+		private Entry(final int slot, final ByteBuffer index, final int at) {
+			this.slot = slot;
+			this.timestamp = index.getLong(at + TIMESTAMP);
+			this.turns = index.getInt(at + TURNS);
+			this.boardHash = index.getLong(at + BOARD_HASH);
+			this.columns = index.getShort(at + COLUMNS) & 0xFFFF;
+			this.rows = index.getShort(at + ROWS) & 0xFFFF;
+			this.playerCount = index.get(at + PLAYERS) & 0xFF;
+			byte[] bytes = new byte[index.get(at + NAMES_LENGTH) & 0xFF];
+			index.get(at + NAMES, bytes);
+			this.names = new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Gets the number of the slot.
+		 *
+		 * @return The slot, from 0.
+		 */
+		public int getSlot() {
+			return slot;
+		}
+
+		/**
+		 * Gets the time of the save.
+		 *
+		 * @return The time in milliseconds since the epoch.
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		/**
+		 * Gets the number of turns played, the sum of the steps of all players.
+		 *
+		 * @return The number of turns.
+		 */
+		public int getTurns() {
+			return turns;
+		}
+
+		/**
+		 * Gets the hash of the board, equal for saves of the same board with the same obstacles.
+		 *
+		 * @return The hash.
+		 */
+		public long getBoardHash() {
+			return boardHash;
+		}
+
+		/**
+		 * Gets the number of columns of the board.
+		 *
+		 * @return The number of columns, 0 if unknown.
+		 */
+		public int getColumns() {
+			return columns;
+		}
+
+		/**
+		 * Gets the number of rows of the board.
+		 *
+		 * @return The number of rows, 0 if unknown.
+		 */
+		public int getRows() {
+			return rows;
+		}
+
+		/**
+		 * Gets the number of players.
+		 *
+		 * @return The number of players.
+		 */
+		public int getPlayerCount() {
+			return playerCount;
+		}
+
+		/**
+		 * Gets the names of the players, separated by commas and cut to the size of the header.
+		 *
+		 * @return The names.
+		 */
+		public String getNames() {
+			return names;
+		}
+	}
+
+	private final Path file;
+
+	private FileChannel channel;
+
+	private MappedByteBuffer index;
+
+	private int capacity;
+
+	private int count;
+
+	private long dataEnd;
+
+	private SaveLibrary(final Path file, final FileChannel channel) {
+		this.file = file;
+		this.channel = channel;
+	}
+
+	/**
+	 * Opens the library of the system property {@code selkies.library}, creating it if it is missing.
+	 *
+	 * @return The library.
+	 * @throws IOException if the file can't be opened or is not a library.
+	 */
+	public static SaveLibrary openDefault() throws IOException {
+		String path = System.getProperty("selkies.library");
+		return open(path != null
+			? Paths.get(path)
+			: Paths.get(System.getProperty("user.home"), ".selkies", "saves.lib"));
+	}
+
+	/**
+	 * Opens a library, creating it with {@value #DEFAULT_CAPACITY} slots if it is missing.
+	 *
+	 * @param file The file of the library.
+	 * @return The library.
+	 * @throws IOException if the file can't be opened or is not a library.
+	 */
+	public static SaveLibrary open(final Path file) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		FileChannel channel = FileChannel.open(file,
+			StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		SaveLibrary library = new SaveLibrary(file, channel);
+		try {
+			if (channel.size() == 0) {
+				SaveLibrary.format(channel, DEFAULT_CAPACITY);
+			}
+			library.map();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		return library;
+	}
+
+	/**
+	 * Gets the number of saved games.
+	 *
+	 * @return The number of slots in use.
+	 */
+	public synchronized int size() {
+		return count;
+	}
+
+	/**
+	 * Gets the number of slots before the index is doubled.
+	 *
+	 * @return The capacity of the index.
+	 */
+	public synchronized int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Reads the header of a slot, the game is not loaded.
+	 *
+	 * @param slot The slot, from 0 to {@link #size()} - 1.
+	 * @return The header.
+	 */
+	public synchronized Entry header(final int slot) {
+		return new Entry(slot, index, entryAt(slot));
+	}
+
+	/**
+	 * Loads the game of a slot.
+	 *
+	 * @param slot The slot, from 0 to {@link #size()} - 1.
+	 * @return The saved game.
+	 * @throws IOException if the game can't be read or is corrupted.
+	 */
+	public synchronized Save load(final int slot) throws IOException {
+		int at = entryAt(slot);
+		long offset = index.getLong(at + OFFSET);
+		int length = index.getInt(at + LENGTH);
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		long position = dataStart() + offset;
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Slot %d is truncated".formatted(slot));
+			}
+		}
+		return SaveCodec.read(new ByteArrayInputStream(buffer.array()));
+	}
+
+	/**
+	 * Appends a game in a new slot, it is on the disk when the method returns.
+	 *
+	 * @param save The game.
+	 * @return The slot of the game.
+	 * @throws IOException if the library can't be written.
+	 */
+	public synchronized int append(final Save save) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		SaveCodec.write(save, bytes);
+		if (count == capacity) {
+			grow();
+		}
+		ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray());
+		long position = dataStart() + dataEnd;
+		while (data.hasRemaining()) {
+			channel.write(data, position + data.position());
+		}
+		int slot = count;
+		int at = FILE_HEADER_SIZE + slot * ENTRY_SIZE;
+		index.putLong(at + OFFSET, dataEnd);
+		index.putInt(at + LENGTH, data.limit());
+		index.putInt(at + TURNS, turnsOf(save.getPlayerList()));
+		index.putLong(at + TIMESTAMP, System.currentTimeMillis());
+		index.putLong(at + BOARD_HASH, boardHash(save));
+		index.putShort(at + COLUMNS, (short) save.getColumns());
+		index.putShort(at + ROWS, (short) save.getRows());
+		index.put(at + PLAYERS, (byte) save.getPlayerList().size());
+		byte[] names = namesOf(save.getPlayerList());
+		index.put(at + NAMES_LENGTH, (byte) names.length);
+		index.put(at + NAMES, names);
+		// the game and its header reach the disk before the count points at them
+		channel.force(false);
+		index.force(at, ENTRY_SIZE);
+		dataEnd += data.limit();
+		count++;
+		index.putLong(HEADER_DATA_END, dataEnd);
+		index.putInt(HEADER_COUNT, count);
+		index.force(0, FILE_HEADER_SIZE);
+		return slot;
+	}
+
+	/**
+	 * Writes the index and the games to the disk.
+	 *
+	 * @throws IOException if the file can't be written.
+	 */
+	public synchronized void force() throws IOException {
+		channel.force(false);
+		index.force();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		channel.close();
+		index = null;
+	}
+
+	/**
+	 * Hashes the board of a game, its size and its obstacles, with 64 bit FNV-1a.
+	 *
+	 * @param save The game.
+	 * @return The hash.
+	 */
+	public static long boardHash(final Save save) {
+		long hash = 0xCBF29CE484222325L;
+		hash = mix(hash, save.getColumns());
+		hash = mix(hash, save.getRows());
+		for (Obstacle obstacle : save.getObstacleList()) {
+			hash = mix(hash, obstacle instanceof Munro ? 0 : 1);
+			hash = mix(hash, obstacle.getStartPosition());
+			hash = mix(hash, obstacle.getEndPosition());
+		}
+		return hash;
+	}
+
+	private static long mix(long hash, final int value) {
+		for (int shift = 0; shift < 32; shift += 8) {
+			hash ^= (value >>> shift) & 0xFF;
+			hash *= 0x100000001B3L;
+		}
+		return hash;
+	}
+
+	private static int turnsOf(final List<Player> players) {
+		int turns = 0;
+		for (Player player : players) {
+			turns += player.getCountSteps();
+		}
+		return turns;
+	}
+
+	/**
+	 * Joins the names of the players, cut at a whole character to fit the header.
+	 */
+	private static byte[] namesOf(final List<Player> players) {
+		StringJoiner joiner = new StringJoiner(", ");
+		for (Player player : players) {
+			joiner.add(player.getPlayerName() != null ? player.getPlayerName() : "#" + player.getSerialNumber());
+		}
+		String names = joiner.toString();
+		byte[] bytes = names.getBytes(StandardCharsets.UTF_8);
+		int end = names.length();
+		while (bytes.length > MAX_NAMES_BYTES) {
+			end--;
+			if (Character.isLowSurrogate(names.charAt(end)) && end > 0) {
+				end--;
+			}
+			bytes = names.substring(0, end).getBytes(StandardCharsets.UTF_8);
+		}
+		return bytes;
+	}
+
+	private int entryAt(final int slot) {
+		if (slot < 0 || slot >= count) {
+			throw new IndexOutOfBoundsException("Slot %d of %d".formatted(slot, count));
+		}
+		return FILE_HEADER_SIZE + slot * ENTRY_SIZE;
+	}
+
+	private long dataStart() {
+		return dataStart(capacity);
+	}
+
+	private static long dataStart(final int capacity) {
+		return FILE_HEADER_SIZE + (long) capacity * ENTRY_SIZE;
+	}
+
+	/**
+	 * Writes the header of an empty library.
+	 */
+	private static void format(final FileChannel target, final int capacity) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+		header.putInt(0, MAGIC);
+		header.putInt(4, VERSION);
+		header.putInt(HEADER_CAPACITY, capacity);
+		header.putInt(HEADER_COUNT, 0);
+		header.putLong(HEADER_DATA_END, 0);
+		target.write(header, 0);
+	}
+
+	/**
+	 * Maps the index and reads the header.
+	 */
+	private void map() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+		channel.read(header, 0);
+		if (header.position() < FILE_HEADER_SIZE || header.getInt(0) != MAGIC) {
+			throw new IOException("Not a save library: " + file);
+		}
+		if (header.getInt(4) != VERSION) {
+			throw new IOException("Unsupported library version " + header.getInt(4));
+		}
+		capacity = header.getInt(HEADER_CAPACITY);
+		count = header.getInt(HEADER_COUNT);
+		dataEnd = header.getLong(HEADER_DATA_END);
+		if (capacity < 1 || capacity > (Integer.MAX_VALUE - FILE_HEADER_SIZE) / ENTRY_SIZE
+			|| count < 0 || count > capacity || dataEnd < 0
+		) {
+			throw new IOException("Corrupted library header: " + file);
+		}
+		if (dataEnd > 0 && channel.size() < dataStart() + dataEnd) {
+			throw new IOException("Library is truncated: " + file);
+		}
+		index = channel.map(FileChannel.MapMode.READ_WRITE, 0, dataStart());
+	}
+
+	/**
+	 * Doubles the capacity of the index: the library is copied into a new file with the larger index, which
+	 * then replaces it. The library stays open on the old file until the new one has replaced it.
+	 */
+	private void grow() throws IOException {
+		int newCapacity = (int) Math.min((long) capacity * 2, (Integer.MAX_VALUE - FILE_HEADER_SIZE) / ENTRY_SIZE);
+		if (newCapacity == capacity) {
+			throw new IOException("Library is full: " + file);
+		}
+		index.force();
+		Path target = file.toAbsolutePath();
+		Path temp = target.resolveSibling(target.getFileName() + ".grow");
+		try {
+			try (FileChannel grown = FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)
+			) {
+				ByteBuffer entries = index.duplicate();
+				entries.position(FILE_HEADER_SIZE).limit(FILE_HEADER_SIZE + count * ENTRY_SIZE);
+				grown.write(entries, FILE_HEADER_SIZE);
+				long copied = 0;
+				while (copied < dataEnd) {
+					grown.position(dataStart(newCapacity) + copied);
+					copied += channel.transferTo(dataStart() + copied, dataEnd - copied, grown);
+				}
+				format(grown, newCapacity);
+				grown.write(ByteBuffer.allocate(4).putInt(0, count), HEADER_COUNT);
+				grown.write(ByteBuffer.allocate(8).putLong(0, dataEnd), HEADER_DATA_END);
+				grown.force(true);
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		GameIO.syncDirectory(target.getParent());
+		FileChannel old = channel;
+		channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			map();
+		} finally {
+			old.close();
+		}
+	}
+}
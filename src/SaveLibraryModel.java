@@ -0,0 +1,35 @@
+import javax.swing.*;
+
+/**
+ * The slots of a {@link SaveLibrary} for a {@link JList}, the newest first. Headers are read from the index only
+ * when the list asks for them, so a library of any size is shown at once; use a list with a fixed cell height,
+ * which does not measure every row.
+ */
+public class SaveLibraryModel extends AbstractListModel<SaveLibrary.Entry> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final SaveLibrary library;
+
+	private final int size;
+
+	/**
+	 * Constructs the model of the slots saved so far.
+	 *
+	 * @param library The library.
+	 */
+	public SaveLibraryModel(final SaveLibrary library) {
+		this.library = library;
+		this.size = library.size();
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public SaveLibrary.Entry getElementAt(final int index) {
+		return library.header(size - 1 - index);
+	}
+}
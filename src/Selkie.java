@@ -2,6 +2,9 @@ import java.awt.*;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 
 /**
  * @Author _se.ho
@@ -11,10 +14,43 @@ import java.awt.geom.Line2D;
 //Snake
 public class Selkie extends Obstacle {
 
+    // the default value of the class before the drawing was reworked, keeps the old saves readable
+    private static final long serialVersionUID = -8362624163703493002L;
+
+    private static final BasicStroke BODY_STROKE = new BasicStroke(12.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER);
+
+    private static final BasicStroke HEAD_STROKE = new BasicStroke(8.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER);
+
+    private static final BasicStroke LINE_STROKE = new BasicStroke(3.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER);
+
     double phi;
 
     int barb;
 
+    // Halvings of the curve when checking if it crosses an area
+    private static final int MAX_SPLITS = 16;
+
+    // Lines of the body at the low render quality
+    private static final int FLAT_SEGMENTS = 8;
+
+    private transient CubicCurve2D.Double curve;
+
+    private transient Line2D.Double[] barbs;
+
+    private transient Ellipse2D.Double[] knobs;
+
+    private transient CubicCurve2D.Double visibleCurve;
+
+    private transient Path2D.Double flatBody;
+
+    private transient double[] piece;
+
+    private transient double[] range;
+
+    private transient Rectangle clip;
+
+    private transient Rectangle2D.Double area;
+
     public Selkie() {
         phi = Math.toRadians(30);
         barb = 15;
@@ -31,78 +67,271 @@ public class Selkie extends Obstacle {
         object.setPosY(this.getPosEndY());
     }
 
+    /**
+     * Builds the curve of the body and the arrowhead between the anchors.
+     *
+     * @param startX The x-coordinate of the start anchor.
+     * @param startY The y-coordinate of the start anchor.
+     * @param endX   The x-coordinate of the end anchor.
+     * @param endY   The y-coordinate of the end anchor.
+     */
+    @Override
+    void buildGeometry(int startX, int startY, int endX, int endY) {
+        if (curve == null) {
+            curve = new CubicCurve2D.Double();
+            barbs = new Line2D.Double[]{new Line2D.Double(), new Line2D.Double()};
+            knobs = new Ellipse2D.Double[]{new Ellipse2D.Double(), new Ellipse2D.Double()};
+            visibleCurve = new CubicCurve2D.Double();
+            flatBody = new Path2D.Double(Path2D.WIND_NON_ZERO, FLAT_SEGMENTS + 1);
+            piece = new double[8];
+            range = new double[2];
+            clip = new Rectangle();
+            area = new Rectangle2D.Double();
+        }
+        curve.setCurve(calculateBezierControlPoints(startX, startY, endX, endY), 0);
+        buildArrowHead(startX, startY, endX, endY);
+    }
+
     /**
      * Draws the object with an orange color and lines connecting the start and end points.
      *
-     * @param g The Graphics object to draw on.
+     * @param g2 The Graphics2D object to draw on.
      */
     @Override
-    void draw(Graphics g) {
-        Point start = convertStartTo();
-        Point end = convertEndTo();
-//		g.drawLine(start.x + 2, start.y + 2, end.x + 2, end.y + 2);
-//		g.drawLine(start.x + 6, start.y + 2, end.x + 6, end.y + 2);
-        double[]
-                controlPoints =
-                calculateBezierControlPoints(
-                        start.x,
-                        start.y,
-                        end.x,
-                        end.y
-                );
-
-        CubicCurve2D curve = new CubicCurve2D.Double(
-                controlPoints[0], controlPoints[1],
-                controlPoints[2], controlPoints[3],
-                controlPoints[4], controlPoints[5],
-                controlPoints[6], controlPoints[7]
-        );
-        Graphics2D g2 = (Graphics2D) g;
-        // get a copy of the current transform so we can restore it later
+    void paint(Graphics2D g2) {
         Color saveColor = g2.getColor();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        RenderQuality quality = beginPaint(g2);
+        Shape body = visibleCurve(g2);
+        if (body != null && !quality.isSmoothCurves()) {
+            body = flatten((CubicCurve2D.Double) body);
+        }
 
-        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
         // draw body
-        g2.setStroke(new BasicStroke(
-                12.0f,
-                BasicStroke.CAP_BUTT,
-                BasicStroke.JOIN_MITER
-        ));
+        g2.setStroke(BODY_STROKE);
         g2.setColor(Color.ORANGE);
-        g2.draw(curve);
-// draw head
-        g2.setStroke(new BasicStroke(
-                8.0f,
-                BasicStroke.CAP_BUTT,
-                BasicStroke.JOIN_MITER
-        ));
-        drawArrowHead(
-                g2,
-                new Point((int) curve.getP1().getX(), (int) curve.getP1().getY()),
-                new Point((int) curve.getP2().getX(), (int) curve.getP2().getY()),
-                Color.YELLOW
-        );
-// draw thinker line over body
-        g2.setStroke(new BasicStroke(
-                3.0f,
-                BasicStroke.CAP_BUTT,
-                BasicStroke.JOIN_MITER
-        ));
+        if (body != null) {
+            g2.draw(body);
+        }
+        // draw head
+        g2.setStroke(HEAD_STROKE);
+        drawArrowHead(g2, Color.YELLOW);
+        // draw thinker line over body
+        g2.setStroke(LINE_STROKE);
         g2.setPaint(Color.DARK_GRAY);
-        g2.draw(curve);
-        drawArrowHead(
-                g2,
-                new Point((int) curve.getP1().getX(), (int) curve.getP1().getY()),
-                new Point((int) curve.getP2().getX(), (int) curve.getP2().getY()),
-                Color.DARK_GRAY
-        );
+        if (body != null) {
+            g2.draw(body);
+        }
+        drawArrowHead(g2, Color.DARK_GRAY);
 
-        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
-//        System.out.println("%s, start.x = %d, start.y = %d, end.x = %d, end.y = %d".formatted(this.getClass().getName(),start.x, start.y, end.x, end.y));
+        g2.setComposite(OPAQUE);
         g2.setColor(saveColor);
     }
 
+    /**
+     * Finds the point of the body at the part of the ride, a player slides down the same curve that is drawn.
+     *
+     * @param t      The part of the ride done, from 0 at the head to 1 at the tail.
+     * @param startX The x-coordinate of the start anchor.
+     * @param startY The y-coordinate of the start anchor.
+     * @param endX   The x-coordinate of the end anchor.
+     * @param endY   The y-coordinate of the end anchor.
+     * @param out    The point to fill.
+     */
+    @Override
+    void pointAt(double t, int startX, int startY, int endX, int endY, Point2D.Double out) {
+        double[] p = calculateBezierControlPoints(startX, startY, endX, endY);
+        double u = 1 - t;
+        double a = u * u * u;
+        double b = 3 * u * u * t;
+        double c = 3 * u * t * t;
+        double d = t * t * t;
+        out.setLocation(
+                a * p[0] + b * p[2] + c * p[4] + d * p[6],
+                a * p[1] + b * p[3] + c * p[5] + d * p[7]
+        );
+    }
+
+    /**
+     * Finds the box of the control points, the curve never leaves it.
+     *
+     * @param startX The x-coordinate of the start anchor.
+     * @param startY The y-coordinate of the start anchor.
+     * @param endX   The x-coordinate of the end anchor.
+     * @param endY   The y-coordinate of the end anchor.
+     * @param out    The rectangle to fill.
+     */
+    @Override
+    void bounds(double startX, double startY, double endX, double endY, Rectangle2D.Double out) {
+        double[] p = calculateBezierControlPoints(startX, startY, endX, endY);
+        out.setFrameFromDiagonal(p[0], p[1], p[6], p[7]);
+        out.add(p[2], p[3]);
+        out.add(p[4], p[5]);
+    }
+
+    /**
+     * Checks if the curve crosses the area.
+     *
+     * @param startX The x-coordinate of the start anchor.
+     * @param startY The y-coordinate of the start anchor.
+     * @param endX   The x-coordinate of the end anchor.
+     * @param endY   The y-coordinate of the end anchor.
+     * @param area   The area.
+     * @return True if the curve may cross the area.
+     */
+    @Override
+    boolean crosses(double startX, double startY, double endX, double endY, Rectangle2D area) {
+        double[] p = calculateBezierControlPoints(startX, startY, endX, endY);
+        double[] range = {1, 0};
+        findRange(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], 0, 1, area, minPiece(area), MAX_SPLITS, range);
+        return range[0] <= range[1];
+    }
+
+    private static double minPiece(Rectangle2D area) {
+        return Math.max(area.getWidth(), area.getHeight()) / 8;
+    }
+
+    /**
+     * Widens the range to the parts of a piece of the curve which may cross the area. The piece is split in halves
+     * as long as the box of its control points meets the area without being inside of it, down to pieces of
+     * an eighth of the area, so a long curve passing by is rejected after a few splits.
+     *
+     * @param from  The parameter of the curve where the piece starts.
+     * @param to    The parameter of the curve where the piece ends.
+     * @param range The range to widen, from and to, empty when from is above to.
+     */
+    private static void findRange(
+            double x0, double y0, double x1, double y1,
+            double x2, double y2, double x3, double y3,
+            double from, double to,
+            Rectangle2D area, double minSize, int splits, double[] range
+    ) {
+        double minX = Math.min(Math.min(x0, x1), Math.min(x2, x3));
+        double maxX = Math.max(Math.max(x0, x1), Math.max(x2, x3));
+        double minY = Math.min(Math.min(y0, y1), Math.min(y2, y3));
+        double maxY = Math.max(Math.max(y0, y1), Math.max(y2, y3));
+        if (maxX < area.getMinX() || minX > area.getMaxX() || maxY < area.getMinY() || minY > area.getMaxY()) {
+            return;
+        }
+        boolean inside = minX >= area.getMinX() && maxX <= area.getMaxX()
+                && minY >= area.getMinY() && maxY <= area.getMaxY();
+        if (inside || splits == 0 || maxX - minX <= minSize && maxY - minY <= minSize) {
+            range[0] = Math.min(range[0], from);
+            range[1] = Math.max(range[1], to);
+            return;
+        }
+        // de Casteljau at the half
+        double ax = (x0 + x1) / 2, ay = (y0 + y1) / 2;
+        double bx = (x1 + x2) / 2, by = (y1 + y2) / 2;
+        double cx = (x2 + x3) / 2, cy = (y2 + y3) / 2;
+        double abx = (ax + bx) / 2, aby = (ay + by) / 2;
+        double bcx = (bx + cx) / 2, bcy = (by + cy) / 2;
+        double mx = (abx + bcx) / 2, my = (aby + bcy) / 2;
+        double mid = (from + to) / 2;
+        findRange(x0, y0, ax, ay, abx, aby, mx, my, from, mid, area, minSize, splits - 1, range);
+        findRange(mx, my, bcx, bcy, cx, cy, x3, y3, mid, to, area, minSize, splits - 1, range);
+    }
+
+    /**
+     * Trims the curve to the clip, widened by the body. A long Selkie on a zoomed board is stroked only where
+     * it can be seen, the trimmed curve is a part of the same curve.
+     *
+     * @param g2 The Graphics2D object to draw on.
+     * @return The curve to draw, null if no part of it can be seen.
+     */
+    private CubicCurve2D.Double visibleCurve(Graphics2D g2) {
+        clip.setBounds(0, 0, -1, -1);
+        g2.getClipBounds(clip);
+        if (clip.width < 0) {
+            return curve;
+        }
+        double margin = BODY_STROKE.getLineWidth();
+        area.setRect(clip.x - margin, clip.y - margin, clip.width + 2 * margin, clip.height + 2 * margin);
+        range[0] = 1;
+        range[1] = 0;
+        findRange(
+                curve.x1, curve.y1, curve.ctrlx1, curve.ctrly1,
+                curve.ctrlx2, curve.ctrly2, curve.x2, curve.y2,
+                0, 1, area, minPiece(area), MAX_SPLITS, range
+        );
+        if (range[0] > range[1]) {
+            return null;
+        }
+        if (range[0] == 0 && range[1] == 1) {
+            return curve;
+        }
+        piece[0] = curve.x1;
+        piece[1] = curve.y1;
+        piece[2] = curve.ctrlx1;
+        piece[3] = curve.ctrly1;
+        piece[4] = curve.ctrlx2;
+        piece[5] = curve.ctrly2;
+        piece[6] = curve.x2;
+        piece[7] = curve.y2;
+        if (range[0] > 0) {
+            split(piece, range[0], true);
+        }
+        if (range[1] < 1) {
+            split(piece, (range[1] - range[0]) / (1 - range[0]), false);
+        }
+        visibleCurve.setCurve(piece, 0);
+        return visibleCurve;
+    }
+
+    /**
+     * Approximates the curve by {@value #FLAT_SEGMENTS} straight lines, cheaper to stroke than the curve.
+     *
+     * @param c The curve.
+     * @return The retained polyline.
+     */
+    private Path2D.Double flatten(CubicCurve2D.Double c) {
+        flatBody.reset();
+        flatBody.moveTo(c.x1, c.y1);
+        for (int i = 1; i <= FLAT_SEGMENTS; i++) {
+            double t = (double) i / FLAT_SEGMENTS;
+            double u = 1 - t;
+            double a = u * u * u;
+            double b = 3 * u * u * t;
+            double d = 3 * u * t * t;
+            double e = t * t * t;
+            flatBody.lineTo(
+                    a * c.x1 + b * c.ctrlx1 + d * c.ctrlx2 + e * c.x2,
+                    a * c.y1 + b * c.ctrly1 + d * c.ctrly2 + e * c.y2
+            );
+        }
+        return flatBody;
+    }
+
+    /**
+     * Splits a cubic curve with de Casteljau's algorithm and keeps one of the parts.
+     *
+     * @param p         The control points, replaced by the ones of the kept part.
+     * @param t         The parameter where the curve is split.
+     * @param keepRight True to keep the part after t, false for the part before.
+     */
+    private static void split(double[] p, double t, boolean keepRight) {
+        double ax = p[0] + (p[2] - p[0]) * t, ay = p[1] + (p[3] - p[1]) * t;
+        double bx = p[2] + (p[4] - p[2]) * t, by = p[3] + (p[5] - p[3]) * t;
+        double cx = p[4] + (p[6] - p[4]) * t, cy = p[5] + (p[7] - p[5]) * t;
+        double abx = ax + (bx - ax) * t, aby = ay + (by - ay) * t;
+        double bcx = bx + (cx - bx) * t, bcy = by + (cy - by) * t;
+        double mx = abx + (bcx - abx) * t, my = aby + (bcy - aby) * t;
+        if (keepRight) {
+            p[0] = mx;
+            p[1] = my;
+            p[2] = bcx;
+            p[3] = bcy;
+            p[4] = cx;
+            p[5] = cy;
+        } else {
+            p[2] = ax;
+            p[3] = ay;
+            p[4] = abx;
+            p[5] = aby;
+            p[6] = mx;
+            p[7] = my;
+        }
+    }
+
     /**
      * Calculates control points for a Bezier curve based on the given start and end points.
      *
@@ -150,27 +379,40 @@ public class Selkie extends Obstacle {
     }
 
     /**
-     * Draws an arrowhead on a Graphics2D context from a given tip and tail with a specified color.
+     * Builds the barbs of the arrowhead from a given tip and tail.
      *
-     * @param g2    The Graphics2D context to draw on.
-     * @param tip   The point representing the arrowhead tip.
-     * @param tail  The point representing the arrowhead tail.
-     * @param color The color of the arrowhead.
+     * @param tipX  The x-coordinate of the arrowhead tip.
+     * @param tipY  The y-coordinate of the arrowhead tip.
+     * @param tailX The x-coordinate of the arrowhead tail.
+     * @param tailY The y-coordinate of the arrowhead tail.
      */
     // https://coderanch.com/t/340443/java/Draw-arrow-head-line
-    private void drawArrowHead(Graphics2D g2, Point tip, Point tail, Color color) {
-        double dy = tip.y - tail.y;
-        double dx = tip.x - tail.x;
+    private void buildArrowHead(int tipX, int tipY, int tailX, int tailY) {
+        double dy = tipY - tailY;
+        double dx = tipX - tailX;
         double theta = Math.atan2(dy, dx);
         double x, y, rho = theta + phi;
         for (int j = 0; j < 2; j++) {
-            x = tip.x - barb * Math.cos(rho);
-            y = tip.y - barb * Math.sin(rho);
+            x = tipX - barb * Math.cos(rho);
+            y = tipY - barb * Math.sin(rho);
+            barbs[j].setLine(tipX, tipY, x, y);
+            knobs[j].setFrame(x, y, 2, 2);
+            rho = theta - phi;
+        }
+    }
+
+    /**
+     * Draws the arrowhead built by {@link #buildArrowHead(int, int, int, int)} with a specified color.
+     *
+     * @param g2    The Graphics2D context to draw on.
+     * @param color The color of the arrowhead.
+     */
+    private void drawArrowHead(Graphics2D g2, Color color) {
+        for (int j = 0; j < 2; j++) {
             g2.setPaint(color);
-            g2.draw(new Line2D.Double(tip.x, tip.y, x, y));
+            g2.draw(barbs[j]);
             g2.setPaint(Color.BLACK);
-            g2.draw(new Ellipse2D.Double(x, y, 2, 2));
-            rho = theta - phi;
+            g2.draw(knobs[j]);
         }
     }
 
@@ -182,6 +424,6 @@ public class Selkie extends Obstacle {
      */
     @Override
     boolean isNeedPerformance(final int position) {
-        return getStartButton().getPosition() == position;
+        return getStartPosition() == position;
     }
 }
\ No newline at end of file
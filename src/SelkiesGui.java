@@ -41,17 +41,21 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -61,10 +65,22 @@ public class SelkiesGui implements ActionListener {
     // Possible improvement: replace with a FileChooser
     private final static String DEFAULT_FILENAME = "selkiesgui.txt";
     private static JFrame mainFrame;
-    private final int GRID_SIZE_X = 10;
-    private final int GRID_SIZE_Y = 10;
+    // Boards with more cells can't be shown as one JButtonField per cell, they are shown on the canvas
+    private final static int MAX_BUTTON_CELLS = 2500;
+    // the board is built this long after the window was shown at the latest, even if it was not painted
+    private final static int FIRST_FRAME_TIMEOUT_MILLIS = 500;
+    private final static String[] WARM_UP_CLASSES = {
+            "GameEngine", "BoardIndex", "JButtonField", "BoardCanvas", "ObstaclePane", "PlayerInfoPane",
+            "Pictogram", "Munro", "Selkie", "TokenAnimator", "DirtyTracker", "DiceRoll", "QualityController"
+    };
+    private final BoardLayout layout;
+    private final boolean canvasView;
     private JButtonField[] buttonArray;
 
+    private JPanel gridPane;
+
+    private BoardCanvas boardCanvas;
+
     private JPanel leftPanel = new JPanel(new BorderLayout());
     private JPanel rightPanel = new JPanel(new BorderLayout());
 
@@ -79,13 +95,88 @@ public class SelkiesGui implements ActionListener {
 
     private JComponent dicePane;
 
+    private DiceRoll diceRoll;
+
+    private SaveLibrary saveLibrary;
+
+    private final MoveJournal moveJournal;
+
+    private final TurnLog turnLog;
+
+    // a save or a load is running on the I/O thread
+    private boolean ioRunning;
+
     private static final Random random = new Random();
 
-    private static int diceValue;
+    // the dice of the turn being played, the steps of the walk animation
+    private int currentRoll;
     private Map<Integer, Player> playerMap;
 
+    // owns the engine, the events and the states of the game arrive on the EDT
+    private final GameLoop gameLoop;
+
+    // true from the roll until the turn is published, one turn is played at a time
+    private boolean turnPending;
+
+    private final DirtyTracker dirtyTracker;
+
+    // null when the moves are not animated, -Dselkies.animate=false
+    private final TokenAnimator tokenAnimator;
+
+    private final QualityController qualityController;
+
     /**
-     * Create the GUI and show it.
+     * Constructs the GUI for the default 10x10 board.
+     */
+    public SelkiesGui() {
+        this(BoardLayout.DEFAULT);
+    }
+
+    /**
+     * Constructs the GUI with the board view chosen by the system property {@code selkies.view}:
+     * {@code canvas} or {@code buttons}. Boards too large for the buttons are always shown on the canvas.
+     *
+     * @param layout The size of the board.
+     */
+    public SelkiesGui(BoardLayout layout) {
+        this(layout, "canvas".equals(System.getProperty("selkies.view")) || layout.getCellCount() > MAX_BUTTON_CELLS);
+    }
+
+    /**
+     * Constructs the GUI and subscribes it to the game loop, the board only mirrors the engine changes
+     * published on the Event Dispatch Thread.
+     *
+     * @param layout     The size of the board.
+     * @param canvasView True to paint the board on one {@link BoardCanvas}, false for a grid of buttons.
+     */
+    public SelkiesGui(BoardLayout layout, boolean canvasView) {
+        if (!canvasView && layout.getCellCount() > MAX_BUTTON_CELLS) {
+            throw new IllegalArgumentException("Board %s is too large for the buttons view".formatted(layout));
+        }
+        this.layout = layout;
+        this.canvasView = canvasView;
+        this.dirtyTracker = new DirtyTracker(layout.getCellCount(), this::refreshCell, this::refreshInfoRow);
+        this.tokenAnimator = Boolean.parseBoolean(System.getProperty("selkies.animate", "true"))
+                ? new TokenAnimator(createAnimationHost())
+                : null;
+        this.qualityController = QualityController.fromSystemProperties();
+        this.gameLoop = new GameLoop(new GameEngine(layout.getCellCount(), new SplittableRandom()),
+                SwingUtilities::invokeLater);
+        gameLoop.addGameListener(createBoardListener());
+        this.moveJournal = MoveJournal.fromSystemProperties(() -> new Save(playerList, obstacleList, layout));
+        if (Objects.nonNull(moveJournal)) {
+            // after the board listener, the snapshots see the finished turn
+            gameLoop.addGameListener(moveJournal);
+        }
+        this.turnLog = TurnLog.fromSystemProperties();
+        if (Objects.nonNull(turnLog)) {
+            gameLoop.addGameListener(turnLog);
+        }
+    }
+
+    /**
+     * Create the GUI and show it. The window is shown at once with a placeholder, the board is built in a later
+     * event after the placeholder was painted, so the window appears before the slow part of the startup.
      * For thread safety, this method should be invoked from the event-dispatching thread.
      */
     public static void createAndShowGUI() {
@@ -94,19 +185,81 @@ public class SelkiesGui implements ActionListener {
         // Create and set up the window.
         mainFrame = new JFrame("SelkiesGui");
         mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        mainFrame.setMinimumSize(new Dimension(1020, 750));
+        mainFrame.setPreferredSize(boardSize);
+
+        Timer timeout = new Timer(FIRST_FRAME_TIMEOUT_MILLIS, null);
+        Runnable build = new Runnable() {
+            private boolean started;
+
+            @Override
+            public void run() {
+                if (started) {
+                    return;
+                }
+                started = true;
+                timeout.stop();
+                // a later event, the current paint of the placeholder reaches the screen first
+                SwingUtilities.invokeLater(() -> buildGUI(boardSize));
+            }
+        };
+        timeout.addActionListener(e -> build.run());
+        timeout.setRepeats(false);
+        mainFrame.setContentPane(createPlaceholder(build));
 
+        // for center screen
+        mainFrame.setLocationRelativeTo(null);
+        mainFrame.setVisible(true);
+        StartupTimer.mark("frame visible");
+        // a window which is not painted, minimized for example, gets its board anyway
+        timeout.start();
+    }
+
+    /**
+     * Creates the content shown until the board is built.
+     *
+     * @param firstPaint Called after the first paint of the placeholder.
+     * @return The placeholder.
+     */
+    private static JComponent createPlaceholder(Runnable firstPaint) {
+        return new JLabel("Loading...", SwingConstants.CENTER) {
+            private boolean painted;
+
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                if (!painted) {
+                    painted = true;
+                    StartupTimer.mark("first frame");
+                    firstPaint.run();
+                }
+            }
+        };
+    }
+
+    /**
+     * Builds the game and the board in the shown window, replacing the placeholder.
+     *
+     * @param boardSize The preferred size of the content.
+     */
+    private static void buildGUI(Dimension boardSize) {
         // Create and set up the content pane.
-        SelkiesGui selkiesGUI = new SelkiesGui();
+        SelkiesGui selkiesGUI = new SelkiesGui(BoardLayout.fromSystemProperties());
         mainFrame.setJMenuBar(selkiesGUI.createMenu());
 //		JPanel contentPane = new JPanel(new GridLayout());
 //		contentPane.setOpaque(true);
 
         mainFrame.setContentPane(selkiesGUI.createContentPane(boardSize));
-        JPanel glass = (JPanel) mainFrame.getGlassPane();
-        glass.setLayout(new BorderLayout());
-        glass.add(selkiesGUI.createObstaclePane(), BorderLayout.CENTER);
-        glass.setOpaque(false);
-        glass.setVisible(true);
+        PaintMetrics.install(mainFrame);
+        ObstaclePane obstacles = selkiesGUI.createObstaclePane();
+        // the canvas paints the obstacles itself
+        if (!selkiesGUI.canvasView) {
+            JPanel glass = (JPanel) mainFrame.getGlassPane();
+            glass.setLayout(new BorderLayout());
+            glass.add(obstacles, BorderLayout.CENTER);
+            glass.setOpaque(false);
+            glass.setVisible(true);
+        }
 //		JLayeredPane layeredPane = new JLayeredPane();
 //		layeredPane.setPreferredSize(boardSize);
 //		mainFrame.getContentPane().add(layeredPane, BorderLayout.CENTER);
@@ -118,15 +271,38 @@ public class SelkiesGui implements ActionListener {
 //
 ////		contentPane.add(layeredPane, BorderLayout.CENTER);
 //		mainFrame.setContentPane(contentPane);
-        mainFrame.setMinimumSize(new Dimension(1020, 750));
-        mainFrame.setPreferredSize(boardSize);
+        StartupTimer.mark("board built");
 
-        // Display the window, setting the size
+        // Display the board
 //		frame.setSize(900, 600);
 //		frame.setExtendedState(JFrame.MAXIMIZED_BOTH);
-        // for center screen
-        mainFrame.setLocationRelativeTo(null);
-        mainFrame.setVisible(true);
+        mainFrame.revalidate();
+        mainFrame.repaint();
+        selkiesGUI.recoverGame();
+        // queued after the paint of the board
+        SwingUtilities.invokeLater(() -> StartupTimer.finish("board shown"));
+    }
+
+    /**
+     * Loads in the background what the first frames need: the classes of the board and the sprites of the tokens.
+     * The window is built on the Event Dispatch Thread meanwhile, which then finds them ready.
+     */
+    public static void warmUp() {
+        Thread thread = new Thread(() -> {
+            ClassLoader loader = SelkiesGui.class.getClassLoader();
+            for (String name : WARM_UP_CLASSES) {
+                try {
+                    // loaded only, the static initializers of Swing classes run on the Event Dispatch Thread
+                    Class.forName(name, false, loader);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            PictogramAtlas.get(PictogramAtlas.SPRITE_SIZE, 1, 1);
+            StartupTimer.mark("warm-up done");
+        }, "startup-warm-up");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     /**
@@ -154,6 +330,14 @@ public class SelkiesGui implements ActionListener {
         menuItem.addActionListener(this);
         menu.add(menuItem);
 
+        menuItem = new JMenuItem("Open Library");
+        menuItem.addActionListener(this);
+        menu.add(menuItem);
+
+        menuItem = new JMenuItem("Save to Library");
+        menuItem.addActionListener(this);
+        menu.add(menuItem);
+
         //a submenu
         menu.addSeparator();
 
@@ -182,40 +366,6 @@ public class SelkiesGui implements ActionListener {
         return contentPane;
     }
 
-    /**
-     * Swaps the image on a JButton with a dice image, waits for 2 seconds,
-     * then displays the generated random number as text on the button.
-     *
-     * @param button The JButton to perform the image swap on.
-     */
-    private static void swapImage(JButton button) {
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                // Replace the image with the dog image
-//				SwingUtilities.invokeLater(() -> button.setIcon(new ImageIcon(new ImageIcon(loadImage("dice.gif")))));
-
-                // Wait for 2 seconds
-                Thread.sleep(2000);
-
-                SwingUtilities.invokeLater(() -> {
-                    button.setIcon(null);
-                    button.setPreferredSize(new Dimension(200, 200));
-                    // Generate a random number
-                    diceValue = generateRandomNumber(1, 6);
-                    // Replace the image with the text containing the random number
-                    button.setText("Move by " + diceValue + " steps");
-                    System.out.println("dice value " + diceValue);
-                });
-
-                return null;
-            }
-        };
-
-        // Execute the SwingWorker
-        worker.execute();
-    }
-
     /**
      * function generate random number in closed range from MIN to MAX
      *
@@ -259,18 +409,21 @@ public class SelkiesGui implements ActionListener {
 //		playerList.add(new Player(PaintUtils::drawSquare));
 //		playerList.add(new Player(PaintUtils::drawStar));
 
-        int numButtons = GRID_SIZE_X * GRID_SIZE_Y;
-        JPanel grid = new JPanel(new GridLayout(GRID_SIZE_Y, GRID_SIZE_X));
+        if (canvasView) {
+            boardCanvas = new BoardCanvas(layout);
+            boardCanvas.setCellClickHandler(cell -> clickSquare(cell % layout.getColumns(), cell / layout.getColumns()));
+            boardCanvas.setTokenAnimator(tokenAnimator);
+            boardCanvas.setQualityController(qualityController);
+            return boardCanvas;
+        }
+        int numButtons = layout.getCellCount();
+        JPanel grid = new JPanel(new GridLayout(layout.getRows(), layout.getColumns()));
+        gridPane = grid;
         buttonArray = new JButtonField[numButtons];
-        StringBuilder sb = new StringBuilder(400);
         int value;
-        for (int i = numButtons - 1; i >= 0; i--) {
-            value =
-                    (
-                            (i / 10 % 2) * i +
-                                    ((i / 10 % 2 - 1) * -1 * (((i / 10) + 1) * 10 - (i % 10 + 1)))
-                    );
-            sb.append(value + 1).append("\t");
+        // GridLayout is filled row by row from the top left corner, the numbering is a serpentine from bottom left
+        for (int i = 0; i < numButtons; i++) {
+            value = layout.cellAtScreen(i / layout.getColumns(), i % layout.getColumns());
 //			buttonArray[value] = new JButtonField("%d".formatted(value + 1), playerList);
             buttonArray[value] = new JButtonField(value);
 
@@ -278,12 +431,7 @@ public class SelkiesGui implements ActionListener {
             buttonArray[value].setActionCommand("" + (value + 1)); // String "0", "1" etc.
             buttonArray[value].addActionListener(this);
             grid.add(buttonArray[value]);
-
-            if (i % 10 == 0) {
-                sb.append("\n");
-            }
         }
-        System.out.println(sb);
         return grid;
     }
 
@@ -333,21 +481,9 @@ public class SelkiesGui implements ActionListener {
      */
     public JComponent createDicePane(JComponent dice) {
         JButton diceButton = new JButton();
-        diceButton.setIcon(loadImageGif("dice.png"));
-
-        diceButton.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                if (diceButton.getIcon() != null) {
-                    diceButton.setIcon(loadImageGif("dice.gif"));
-                    swapImage(diceButton);
-                } else {
-                    diceButton.setIcon(loadImageGif("dice.png"));
-                    if (Objects.nonNull(playerList) && !playerList.isEmpty()) {
-                        makeCurrentStep();
-                        setNextPlayer();
-                    }
-                }
+        diceRoll = new DiceRoll(diceButton, () -> random.nextInt(GameEngine.DICE_SIDES) + 1, value -> {
+            if (Objects.nonNull(playerList) && !playerList.isEmpty()) {
+                makeCurrentStep(value);
             }
         });
 
@@ -359,50 +495,63 @@ public class SelkiesGui implements ActionListener {
     //https://www.rgagnon.com/javadetails/java-0240.html
 
     /**
-     * Loads an image in GIF format from the specified file name.
+     * Loads an image in GIF format from the specified file name, decoded once by the {@link AssetCache}.
      *
      * @param fileName The name of the GIF file to be loaded.
      * @return An ImageIcon object representing the loaded GIF image.
      */
     public ImageIcon loadImageGif(String fileName) {
-        ImageIcon buff = null;
-        URL url = this.getClass().getResource(fileName);
-        return new ImageIcon(url);
+        return AssetCache.icon(fileName);
     }
 
     /**
-     * Moves the current player based on the dice value, updates the game pane, and checks for obstacles.
-     * If the new position is beyond the last cell, it adjusts the position accordingly.
+     * Plays the turn of the current player with the rolled value. The game loop moves the player, handles the
+     * bounce back from the last cell and the obstacles, the board follows through the listener on the EDT.
      * Displays a congratulatory message if the player reaches the last cell.
      */
-    private void makeCurrentStep() {
-        Player player = getCurrentPlayer();
-        int currentPosition = player.getPlayerPos();
-        int newPosition = currentPosition + diceValue;
-
-        // Adjust the position if it exceeds the last cell
-        if (newPosition > 99) {
-            newPosition = 99 - (newPosition - 99);
+    private void makeCurrentStep(int dice) {
+        if (turnPending || gameLoop.getState().isFinished()) {
+            return;
         }
-
-        // Move the player and update the panes
-        buttonArray[currentPosition].removePlayer(player);
-        buttonArray[newPosition].addPlayer(player);
-        player.setPlayerPos(newPosition);
-        checkAndInteractObstacle(player);
-        updateGamePane();
-        updateInfoPane();
-
-        // Display a congratulatory message if the player reaches the last cell
-        if (newPosition == 99) {
-            JOptionPane.showMessageDialog(
-                    mainFrame,
-                    String.format("<html>Congratulations, %s! You are <b>W I N N E R!</b></html>", player.getPlayerName()),
-                    "Congratulations!",
-                    JOptionPane.INFORMATION_MESSAGE
-            );
-            NewGame();
+        turnPending = true;
+        currentRoll = dice;
+        if (Objects.nonNull(moveJournal)) {
+            moveJournal.rolled(dice);
         }
+        if (Objects.nonNull(turnLog)) {
+            turnLog.rolled(dice);
+        }
+        // completed on the EDT after the board listener has seen the turn
+        gameLoop.playTurn(dice).whenComplete((state, failure) -> {
+            try {
+                if (Objects.nonNull(failure)) {
+                    System.err.println("The turn can't be played: " + failure);
+                    return;
+                }
+                // Display a congratulatory message if the player reaches the last cell
+                if (state.isFinished()) {
+                    // the dialog blocks the next frame, the final move has to be visible behind it
+                    if (Objects.nonNull(tokenAnimator)) {
+                        tokenAnimator.finish();
+                    }
+                    dirtyTracker.flush();
+                    Player player = playerMap.get(state.getWinner() + 1);
+                    JOptionPane.showMessageDialog(
+                            mainFrame,
+                            String.format("<html>Congratulations, %s! You are <b>W I N N E R!</b></html>", player.getPlayerName()),
+                            "Congratulations!",
+                            JOptionPane.INFORMATION_MESSAGE
+                    );
+                    NewGame();
+                }
+            } catch (RuntimeException e) {
+                // the future would swallow it, the EDT reports it as for any event
+                Thread edt = Thread.currentThread();
+                edt.getUncaughtExceptionHandler().uncaughtException(edt, e);
+            } finally {
+                turnPending = false;
+            }
+        });
     }
 
     /**
@@ -415,6 +564,14 @@ public class SelkiesGui implements ActionListener {
         this.obstaclePane.setBorder(BorderFactory.createLineBorder(Color.CYAN));
         this.obstaclePane.setOpaque(false);
         this.obstaclePane.setVisible(true);
+        if (!canvasView) {
+            this.obstaclePane.setTokenAnimator(tokenAnimator);
+            this.obstaclePane.setQualityController(qualityController);
+        }
+        // obstacles are attached to the buttons, their cached image is outdated when the grid moves
+        if (Objects.nonNull(gridPane)) {
+            this.obstaclePane.watch(gridPane);
+        }
         return this.obstaclePane;
     }
 
@@ -454,6 +611,12 @@ public class SelkiesGui implements ActionListener {
                 case "Save Game":
                     SaveGame();
                     break;
+                case "Open Library":
+                    OpenLibrary();
+                    break;
+                case "Save to Library":
+                    SaveToLibrary();
+                    break;
                 case "Help":
                     Help();
                     break;
@@ -463,8 +626,8 @@ public class SelkiesGui implements ActionListener {
         else if (classname.equals("JButtonField")) {
             JButtonField button = (JButtonField) (e.getSource());
             int bnum = Integer.parseInt(button.getActionCommand()) - 1;
-            int row = bnum % GRID_SIZE_X;
-            int col = bnum / GRID_SIZE_X;
+            int row = bnum % layout.getColumns();
+            int col = bnum / layout.getColumns();
 
             System.out.println("bnum=" + bnum);
             System.out.println("heght - %d, width - %d".formatted(button.getHeight(), button.getWidth()));
@@ -487,85 +650,248 @@ public class SelkiesGui implements ActionListener {
      * Sets a given square in the grid (at [row][col]) to a specific character or colour
      */
     public boolean setGuiSquare(int row, int col, GRID_COLOUR colour) {
-        int bnum = col * GRID_SIZE_X + row;
-        if (bnum >= (GRID_SIZE_X * GRID_SIZE_Y)) {
+        int bnum = col * layout.getColumns() + row;
+        if (bnum >= layout.getCellCount()) {
             return false;
         } else {
+            Color color;
             switch (colour) {
                 case RED:
-                    buttonArray[bnum].setBackground(Color.red);
+                    color = Color.red;
                     break;
                 case YELLOW:
-                    buttonArray[bnum].setBackground(Color.yellow);
+                    color = Color.yellow;
                     break;
                 case BLANK:
-                    buttonArray[bnum].setBackground(Color.gray);
+                    color = Color.gray;
                     break;
                 default:
-                    buttonArray[bnum].setBackground(Color.gray);
+                    color = Color.gray;
                     break;
             }
+            if (canvasView) {
+                boardCanvas.setCellColor(bnum, color);
+            } else {
+                buttonArray[bnum].setBackground(color);
+            }
         }
         return true;
     }
 
     /**
-     * Sets the next player as the currently selected player in a circular manner.
-     * Updates the information pane accordingly.
+     * Creates the listener which mirrors the engine changes on the buttons and the info pane.
+     *
+     * @return The listener for the game engine.
      */
-    public void setNextPlayer() {
-        Player currentPlayer = getCurrentPlayer();
-        int nextPlayerNumber = currentPlayer.getSerialNumber();
-
-        // Reset to the first player if the current player is the last one
-        if (nextPlayerNumber == playerList.size()) {
-            nextPlayerNumber = 0;
-        }
+    private GameListener createBoardListener() {
+        return new GameListener() {
+            @Override
+            public void playerMoved(int seat, int from, int to) {
+                Player player = playerMap.get(seat + 1);
+                if (Objects.isNull(tokenAnimator)) {
+                    movePlayer(player, from, to);
+                    return;
+                }
+                // the token leaves the board, it is put on its cell when the animation ends
+                liftPlayer(player, from);
+                player.setPlayerPos(to);
+                dirtyTracker.markCell(from);
+                markInfoRow(player);
+                tokenAnimator.walk(player, from, currentRoll, layout.getCellCount() - 1);
+            }
 
-        currentPlayer.setSelected(false);
-        playerMap.get(++nextPlayerNumber).setSelected(true);
+            @Override
+            public void obstacleTriggered(int seat, int from, int to) {
+                Player player = playerMap.get(seat + 1);
+                if (Objects.isNull(tokenAnimator)) {
+                    movePlayer(player, from, to);
+                    return;
+                }
+                player.setPlayerPos(to);
+                markInfoRow(player);
+                // a chain of obstacles is reported once, every obstacle of it is ridden
+                BoardIndex board = gameLoop.getState().getBoard();
+                int cell = from;
+                int obstacle;
+                while ((obstacle = board.obstacleAt(cell)) >= 0) {
+                    tokenAnimator.ride(player, obstacleList.get(obstacle));
+                    cell = board.getEnd(obstacle);
+                }
+            }
 
-        updateInfoPane();
+            @Override
+            public void turnChanged(int seat) {
+                setNextPlayer(seat);
+            }
+        };
     }
 
     /**
-     * Checks for obstacles at the player's current position and performs interaction if needed.
+     * Creates the host of the token animation: the obstacle pane over the buttons or the canvas.
      *
-     * @param player The player to check for obstacles and interact accordingly.
+     * @return The host of the animator.
      */
-    private void checkAndInteractObstacle(Player player) {
-        final int position = player.getPlayerPos();
+    private TokenAnimator.Host createAnimationHost() {
+        return new TokenAnimator.Host() {
+            private final Rectangle bounds = new Rectangle();
 
-        // Check each obstacle for interaction
-        for (Obstacle obstacle : obstacleList) {
-            if (obstacle.isNeedPerformance(position)) {
-                // Move the player to the obstacle's end position
-                buttonArray[position].removePlayer(player);
-                buttonArray[obstacle.getEndButton().getPosition()].addPlayer(player);
-                player.setPlayerPos(obstacle.getEndButton().getPosition());
+            @Override
+            public JComponent getAnimationLayer() {
+                return canvasView ? boardCanvas : obstaclePane;
+            }
 
-                // Update the game and information panes
-                updateGamePane();
-                updateInfoPane();
+            @Override
+            public void locate(int cell, Point out) {
+                if (canvasView) {
+                    boardCanvas.getCellBounds(cell, bounds);
+                    out.setLocation(bounds.x + bounds.width / 3, bounds.y + bounds.height / 3 * 2);
+                } else {
+                    JButtonField button = buttonArray[cell];
+                    out.setLocation(button.getWidth() / 3, button.getHeight() / 3 * 2);
+                    out.setLocation(SwingUtilities.convertPoint(button, out, obstaclePane));
+                }
+            }
+
+            @Override
+            public int getTokenSize() {
+                return canvasView ? boardCanvas.getTokenSize() : PictogramAtlas.SPRITE_SIZE;
+            }
 
-                // Interaction completed, return to avoid further interactions
-                return;
+            @Override
+            public void arrived(Player player, int cell) {
+                placePlayer(player, cell);
+                dirtyTracker.markCell(cell);
+            }
+        };
+    }
+
+    /**
+     * Gets the animator of the moves, its frame times can be read while the game runs.
+     *
+     * @return The animator, null if the moves are not animated.
+     */
+    public TokenAnimator getTokenAnimator() {
+        return tokenAnimator;
+    }
+
+    /**
+     * Moves the player between the buttons and updates the panes.
+     *
+     * @param player The player to move.
+     * @param from   The cell the player left.
+     * @param to     The cell the player arrived at.
+     */
+    private void movePlayer(Player player, int from, int to) {
+        liftPlayer(player, from);
+        placePlayer(player, to);
+        player.setPlayerPos(to);
+        dirtyTracker.markCell(from);
+        dirtyTracker.markCell(to);
+        markInfoRow(player);
+    }
+
+    /**
+     * Marks the info row of the player as changed, it is refreshed with the next frame.
+     *
+     * @param player The player.
+     */
+    private void markInfoRow(Player player) {
+        for (int i = 0; i < playerPaneList.size(); i++) {
+            if (playerPaneList.get(i).getPlayer() == player) {
+                dirtyTracker.markRow(i);
             }
         }
     }
 
     /**
-     * Retrieves the currently selected player.
+     * Repaints one cell of the board view, called by the dirty tracker.
      *
-     * @return The currently selected player or null if none is selected.
+     * @param cell The cell.
      */
-    private Player getCurrentPlayer() {
-        for (Player player : playerList) {
-            if (player.isSelected()) {
-                return player;
+    private void refreshCell(int cell) {
+        if (canvasView) {
+            boardCanvas.repaintCell(cell);
+        } else if (Objects.nonNull(buttonArray)) {
+            buttonArray[cell].repaint();
+        }
+    }
+
+    /**
+     * Refreshes one row of the info pane, called by the dirty tracker.
+     *
+     * @param row The index of the row in the list of player panes.
+     */
+    private void refreshInfoRow(int row) {
+        if (row < playerPaneList.size()) {
+            PlayerInfoPane pn = playerPaneList.get(row);
+            pn.showInfo();
+            pn.repaint();
+        }
+    }
+
+    /**
+     * Puts the token of the player on a cell of the board view.
+     *
+     * @param player The player.
+     * @param cell   The cell.
+     */
+    private void placePlayer(Player player, int cell) {
+        if (canvasView) {
+            boardCanvas.addPlayer(cell, player);
+        } else {
+            buttonArray[cell].addPlayer(player);
+        }
+    }
+
+    /**
+     * Removes the token of the player from a cell of the board view.
+     *
+     * @param player The player.
+     * @param cell   The cell.
+     */
+    private void liftPlayer(Player player, int cell) {
+        if (canvasView) {
+            boardCanvas.removePlayer(cell, player);
+        } else {
+            buttonArray[cell].removePlayer(player);
+        }
+    }
+
+    /**
+     * Attaches the obstacle to its cells and shows it on the board view. On the buttons view the obstacle
+     * is attached to the buttons and drawn by the obstacle pane, the canvas draws it from the cells.
+     *
+     * @param obstacle The obstacle.
+     * @param start    The cell where the obstacle acts.
+     * @param end      The cell where the obstacle leads.
+     */
+    private void attachObstacle(Obstacle obstacle, int start, int end) {
+        if (canvasView) {
+            obstacle.setStartPosition(start);
+            obstacle.setEndPosition(end);
+            boardCanvas.addObstacle(obstacle);
+        } else {
+            obstacle.setStartButton(buttonArray[start]);
+            obstacle.setEndButton(buttonArray[end]);
+            obstaclePane.addObstacle(obstacle);
+        }
+    }
+
+    /**
+     * Sets the player of the seat as the currently selected player.
+     * Updates the information pane accordingly.
+     *
+     * @param seat The seat which has to roll the dice next.
+     */
+    private void setNextPlayer(int seat) {
+        Player next = playerMap.get(seat + 1);
+        // only the rows of the previous and the next player change
+        for (Player p : playerList) {
+            if (p.isSelected() != (p == next)) {
+                p.setSelected(p == next);
+                markInfoRow(p);
             }
         }
-        return null;
     }
 
     /**
@@ -594,15 +920,22 @@ public class SelkiesGui implements ActionListener {
         AtomicInteger ai = new AtomicInteger(0);
         playerList.forEach(p -> {
             p.setSerialNumber(orderList.get(ai.getAndIncrement()));
-            buttonArray[0].addPlayer(p);
+            placePlayer(p, 0);
             addInfoWidget(p);
         });
         playerMap = playerList.stream()
                 .collect(Collectors.toMap(Player::getSerialNumber, Function.identity()));
+        gameLoop.newGame(playerList.size());
         playerMap.get(1).setSelected(true);
         updateInfoPane();
 //		playerPaneList.get(0).setSelectedPane(true);
         createObstacle();
+        if (Objects.nonNull(moveJournal)) {
+            moveJournal.compact();
+        }
+        if (Objects.nonNull(turnLog)) {
+            turnLog.start(new Save(playerList, obstacleList, layout));
+        }
         // Players are entered
         // v 1. clear game field
         // 2. recreate obstacles
@@ -616,11 +949,24 @@ public class SelkiesGui implements ActionListener {
      * Prepares the game for a new round by resetting obstacles, buttons, and player-related components.
      */
     private void prepareNewGame() {
+        if (Objects.nonNull(tokenAnimator)) {
+            tokenAnimator.cancel();
+        }
+        if (Objects.nonNull(diceRoll)) {
+            diceRoll.cancel();
+        }
+        dirtyTracker.clear();
         obstaclePane.clearObstacle();
         obstaclePane.repaint();
         obstacleList.forEach(Obstacle::prepareNewGame);
         obstacleList.clear();
-        Arrays.stream(buttonArray).forEach(JButtonField::prepareNewGame);
+        gameLoop.setBoard(BoardIndex.empty(layout.getCellCount()));
+        if (canvasView) {
+            boardCanvas.clearObstacle();
+            boardCanvas.prepareNewGame();
+        } else {
+            Arrays.stream(buttonArray).forEach(JButtonField::prepareNewGame);
+        }
         playerPaneList.clear();
         this.infoPane.removeAll();
         this.infoPane.revalidate();
@@ -632,90 +978,55 @@ public class SelkiesGui implements ActionListener {
         } else if (!playerList.isEmpty()) {
             playerList.clear();
         }
-        unique.clear();
     }
 
     /**
      * Creates obstacles for the game, alternating between Munro and Selkie obstacles.
      * Each obstacle is assigned a random pair of buttons as its start and end points.
+     * There is one obstacle per ten cells, 10 on the default board.
      */
     public void createObstacle() {
         System.out.println("Creating obstacles...");
         Obstacle obstacle;
-        Pair pair;
-        for (int i = 0; i < 10; i++) {
-            pair = getRandomPair();
-            System.out.println("min = %d, max = %d".formatted(pair.vMin, pair.vMax));
+        int count = layout.getCellCount() / 10;
+        // pairs of the lower and the higher cell, first and last cells are never used
+        int[] cells = new ObstaclePlacer(layout, random.nextLong()).place(count);
+        for (int i = 0; i < count; i++) {
+            int vMin = cells[2 * i];
+            int vMax = cells[2 * i + 1];
             if (i % 2 == 0) {
                 obstacle = new Munro();
-                obstacle.setStartButton(buttonArray[pair.vMin]);
-                obstacle.setEndButton(buttonArray[pair.vMax]);
+                attachObstacle(obstacle, vMin, vMax);
             } else {
                 obstacle = new Selkie();
-                obstacle.setStartButton(buttonArray[pair.vMax]);
-                obstacle.setEndButton(buttonArray[pair.vMin]);
+                attachObstacle(obstacle, vMax, vMin);
             }
-//			obstacle.setObstaclePane(obstaclePane);
             obstacleList.add(obstacle);
-            obstaclePane.addObstacle(obstacle);
         }
+        gameLoop.setBoard(BoardIndex.of(layout.getCellCount(), obstacleList));
     }
 
     /**
      * Updates the player information displayed on the info pane.
-     * Iterates through each player pane, shows their updated information, and repaints the panes.
-     * Introduces a small delay (30 milliseconds) to allow for visual updates.
+     * Marks every player pane as changed, they are refreshed together with the next frame.
      */
     public void updateInfoPane() {
-        playerPaneList.forEach(pn -> {
-            pn.showInfo();
-            pn.repaint();
-        });
-        try {
-            Thread.sleep(30);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        for (int i = 0; i < playerPaneList.size(); i++) {
+            dirtyTracker.markRow(i);
         }
     }
 
     /**
-     * update game board
+     * Repaints the whole game board, after it was rebuilt. Moves repaint only the changed cells.
      */
     public void updateGamePane() {
-        Arrays.stream(buttonArray).forEach(Component::repaint);
-        try {
-            Thread.sleep(30);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+        if (canvasView) {
+            boardCanvas.repaint();
+        } else {
+            Arrays.stream(buttonArray).forEach(Component::repaint);
         }
     }
 
-    /**
-     * generate pair random numbers
-     *
-     * @return
-     */
-    private Pair getRandomPair() {
-        Pair pair = new Pair();
-//		buttonArray from 0 to 99, that why to range need from 1 to 98
-        int v1 = generateUniqueValueForObstacle();
-        int v2 = generateUniqueValueForObstacle();
-        pair.vMax = Math.max(v1, v2);
-        pair.vMin = Math.min(v1, v2);
-        return pair;
-    }
-
-    private final HashSet<Integer> unique = new HashSet<>(50);
-
-    private int generateUniqueValueForObstacle() {
-        int temp;
-        do {
-            temp = SelkiesGui.generateRandomNumber(1, 98);
-        } while (unique.contains(temp));
-        unique.add(temp);
-        return temp;
-    }
-
     //************************************************************************
     //*** SelkiesGui: Modify the methods below to respond to Menu and Mouse click events
 
@@ -725,29 +1036,99 @@ public class SelkiesGui implements ActionListener {
      */
     public void LoadGame() {
         System.out.println("Load game selected");
-        Save newLoad = Save.load();
+        File file = Save.chooseLoadFile();
+        if (Objects.nonNull(file)) {
+            runInBackground("Load Game", "Loading " + file.getName(),
+                    progress -> GameIO.load(file.toPath(), progress), this::loadGame);
+        }
+    }
 
-        if (Objects.nonNull(newLoad)) {
+    /**
+     * Replaces the current game by a saved one, after checking that it fits the board.
+     *
+     * @param newLoad The saved game.
+     */
+    private void loadGame(Save newLoad) {
+        final BoardIndex board;
+        try {
+            BoardLayout savedLayout = newLoad.getLayout();
+            if (savedLayout != null && (savedLayout.getColumns() != layout.getColumns()
+                    || savedLayout.getRows() != layout.getRows())) {
+                throw new IllegalArgumentException("it was saved on the board %s, this board is %s"
+                        .formatted(savedLayout, layout));
+            }
+            if (newLoad.getPlayerList().isEmpty()) {
+                throw new IllegalArgumentException("it has no players");
+            }
+            // the serial numbers are the seats, checked before the board is cleared
+            Save.checkSerialNumbers(newLoad.getPlayerList());
+            for (Player player : newLoad.getPlayerList()) {
+                if (player.getPlayerPos() < 0 || player.getPlayerPos() >= layout.getCellCount()) {
+                    throw new IllegalArgumentException("player %s is out of the board %s"
+                            .formatted(player.getPlayerName(), layout));
+                }
+            }
+            board = BoardIndex.of(layout.getCellCount(), newLoad.getObstacleList());
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(
+                    mainFrame,
+                    "The saved board is invalid: " + e.getMessage(),
+                    "Load Game",
+                    JOptionPane.ERROR_MESSAGE
+            );
+            return;
+        }
 
-            prepareNewGame();
+        prepareNewGame();
 
-            playerList.addAll(newLoad.getPlayerList());
+        playerList.addAll(newLoad.getPlayerList());
 
-            for (Player player : newLoad.getPlayerList()) {
-                addInfoWidget(player);
-                buttonArray[player.getPlayerPos()].addPlayer(player);
+        for (Player player : newLoad.getPlayerList()) {
+            addInfoWidget(player);
+            placePlayer(player, player.getPlayerPos());
+        }
+        playerMap = playerList.stream()
+                .collect(Collectors.toMap(Player::getSerialNumber, Function.identity()));
+        int[] positions = new int[playerList.size()];
+        int[] steps = new int[playerList.size()];
+        int currentSeat = 0;
+        for (Player player : playerList) {
+            positions[player.getSerialNumber() - 1] = player.getPlayerPos();
+            steps[player.getSerialNumber() - 1] = player.getCountSteps();
+            if (player.isSelected()) {
+                currentSeat = player.getSerialNumber() - 1;
             }
-            playerMap = playerList.stream()
-                    .collect(Collectors.toMap(Player::getSerialNumber, Function.identity()));
-            updateInfoPane();
-
-            obstacleList.addAll(newLoad.getObstacleList());
-            for (Obstacle obstacle : newLoad.getObstacleList()) {
-                obstacle.setStartButton(buttonArray[obstacle.getStartPosition()]);
-                obstacle.setEndButton(buttonArray[obstacle.getEndPosition()]);
-                obstaclePane.addObstacle(obstacle);
+        }
+        updateInfoPane();
+
+        obstacleList.addAll(newLoad.getObstacleList());
+        for (Obstacle obstacle : newLoad.getObstacleList()) {
+            attachObstacle(obstacle, obstacle.getStartPosition(), obstacle.getEndPosition());
+        }
+        gameLoop.restore(positions, steps, currentSeat, board);
+        updateGamePane();
+        if (Objects.nonNull(moveJournal)) {
+            moveJournal.compact();
+        }
+        if (Objects.nonNull(turnLog)) {
+            turnLog.start(new Save(playerList, obstacleList, layout));
+        }
+    }
+
+    /**
+     * Restores the game interrupted by a crash from the move journal, if there is one.
+     */
+    private void recoverGame() {
+        if (Objects.isNull(moveJournal)) {
+            return;
+        }
+        try {
+            Save recovered = moveJournal.recover();
+            if (Objects.nonNull(recovered)) {
+                loadGame(recovered);
             }
-            updateGamePane();
+        } catch (IOException e) {
+            System.err.println("The journaled game can't be recovered: " + e);
         }
     }
 
@@ -758,8 +1139,126 @@ public class SelkiesGui implements ActionListener {
     public void SaveGame() {
         System.out.println("Save game selected");
 
-        Save save = new Save(playerList, obstacleList);
-        save.save();
+        File file = Save.chooseSaveFile();
+        if (Objects.nonNull(file)) {
+            Save save = new Save(playerList, obstacleList, layout);
+            runInBackground("Save Game", "Saving " + file.getName(),
+                    progress -> GameIO.save(save, file.toPath(), progress),
+                    path -> System.out.println("Saved " + path));
+        }
+    }
+
+    /**
+     * Runs a save or a load on the I/O thread. The progress is shown in a monitor, which pops up only for
+     * a slow operation, the result or the error is handled back on the Event Dispatch Thread.
+     * One operation at a time, a menu event during it is refused.
+     *
+     * @param title  The title of the messages.
+     * @param note   The description of the operation.
+     * @param task   Starts the operation with the consumer of its progress, from 0 to 1.
+     * @param result Handles the result on the Event Dispatch Thread.
+     */
+    private <T> void runInBackground(String title, String note,
+                                     Function<DoubleConsumer, CompletableFuture<T>> task, Consumer<T> result) {
+        if (ioRunning) {
+            JOptionPane.showMessageDialog(mainFrame, "Another save or load is still running.", title,
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        ioRunning = true;
+        ProgressMonitor monitor = new ProgressMonitor(mainFrame, note, null, 0, 100);
+        monitor.setMillisToDecideToPopup(100);
+        monitor.setMillisToPopup(300);
+        mainFrame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        task.apply(fraction -> SwingUtilities.invokeLater(() -> monitor.setProgress((int) (fraction * 100))))
+                .whenCompleteAsync((value, error) -> {
+                    ioRunning = false;
+                    monitor.close();
+                    mainFrame.setCursor(Cursor.getDefaultCursor());
+                    if (Objects.isNull(error)) {
+                        result.accept(value);
+                        return;
+                    }
+                    Throwable cause = error instanceof CompletionException && Objects.nonNull(error.getCause())
+                            ? error.getCause()
+                            : error;
+                    cause.printStackTrace();
+                    JOptionPane.showMessageDialog(mainFrame, title + " failed: " + cause.getMessage(), title,
+                            JOptionPane.ERROR_MESSAGE);
+                }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * This method is called from the Menu event: Open Library.
+     * Lists the games of the save library and loads the chosen one.
+     */
+    public void OpenLibrary() {
+        final SaveLibrary library = saveLibrary();
+        if (library == null) {
+            return;
+        }
+        JList<SaveLibrary.Entry> list = new JList<>(new SaveLibraryModel(library));
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // fixed cells, the list does not measure all the rows of a large library
+        list.setFixedCellHeight(20);
+        list.setFixedCellWidth(520);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                SaveLibrary.Entry entry = (SaveLibrary.Entry) value;
+                String text = "#%d  %tF %<tR  %dx%d  %d turns  %s".formatted(entry.getSlot() + 1,
+                        entry.getTimestamp(), entry.getColumns(), entry.getRows(), entry.getTurns(), entry.getNames());
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        list.setVisibleRowCount(15);
+        int answer = JOptionPane.showConfirmDialog(mainFrame, new JScrollPane(list),
+                "Open Library (%d games)".formatted(library.size()), JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE);
+        SaveLibrary.Entry entry = list.getSelectedValue();
+        if (answer != JOptionPane.OK_OPTION || entry == null) {
+            return;
+        }
+        try {
+            loadGame(library.load(entry.getSlot()));
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(mainFrame, "The saved game can't be read: " + e.getMessage(),
+                    "Open Library", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * This method is called from the Menu event: Save to Library.
+     * Appends the current game to the save library, on the I/O thread.
+     */
+    public void SaveToLibrary() {
+        final SaveLibrary library = saveLibrary();
+        if (library == null) {
+            return;
+        }
+        runInBackground("Save to Library", "Saving to the library",
+                progress -> GameIO.append(library, new Save(playerList, obstacleList, layout), progress),
+                slot -> JOptionPane.showMessageDialog(mainFrame,
+                        "The game is saved in the library as #%d.".formatted(slot + 1),
+                        "Save to Library", JOptionPane.INFORMATION_MESSAGE));
+    }
+
+    /**
+     * Opens the save library on first use.
+     *
+     * @return The library, null if it can't be opened.
+     */
+    private SaveLibrary saveLibrary() {
+        if (saveLibrary == null) {
+            try {
+                saveLibrary = SaveLibrary.openDefault();
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(mainFrame, "The save library can't be opened: " + e.getMessage(),
+                        "Save Library", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+        return saveLibrary;
     }
 
     /**
@@ -798,12 +1297,4 @@ public class SelkiesGui implements ActionListener {
         YELLOW,
         RED
     }
-
-    /**
-     * A simple class representing a pair of integers, with {@code vMax} and {@code vMin} as public fields.
-     */
-    class Pair {
-        public int vMax;
-        public int vMin;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+import java.util.Arrays;
+
+/**
+ * Statistics of a batch of simulated games on one board, collected by {@link MonteCarloSimulator}.
+ * Game length is counted in turns, one turn is one roll of the dice by any player.
+ * Lengths are kept as a histogram, so median and percentiles are exact.
+ */
+public class SimulationResult {
+
+	private final long[] lengthHistogram;
+
+	private final long[] wins;
+
+	private final long[] triggers;
+
+	private long games;
+
+	private long unfinished;
+
+	private long totalTurns;
+
+	/**
+	 * Constructs an empty result.
+	 *
+	 * @param playerCount   The number of players in every game.
+	 * @param obstacleCount The number of obstacles on the board.
+	 * @param maxTurns      The number of turns after which a game is abandoned.
+	 */
+	public SimulationResult(final int playerCount, final int obstacleCount, final int maxTurns) {
+		this.lengthHistogram = new long[maxTurns + 1];
+		this.wins = new long[playerCount];
+		this.triggers = new long[obstacleCount];
+	}
+
+	/**
+	 * Records a finished game.
+	 *
+	 * @param turns The number of turns of the game.
+	 * @param seat  The seat of the winner.
+	 */
+	void recordGame(final int turns, final int seat) {
+		games++;
+		lengthHistogram[turns]++;
+		totalTurns += turns;
+		wins[seat]++;
+	}
+
+	/**
+	 * Records a game abandoned after the maximal number of turns.
+	 */
+	void recordUnfinished() {
+		games++;
+		unfinished++;
+	}
+
+	/**
+	 * Records a move by an obstacle.
+	 *
+	 * @param obstacle The index of the obstacle in the {@link BoardIndex}.
+	 */
+	void recordTrigger(final int obstacle) {
+		triggers[obstacle]++;
+	}
+
+	/**
+	 * Adds the statistics of another result of the same board to this one.
+	 *
+	 * @param other The result to be added.
+	 * @return This result.
+	 */
+	SimulationResult merge(final SimulationResult other) {
+		games += other.games;
+		unfinished += other.unfinished;
+		totalTurns += other.totalTurns;
+		for (int i = 0; i < lengthHistogram.length; i++) {
+			lengthHistogram[i] += other.lengthHistogram[i];
+		}
+		for (int i = 0; i < wins.length; i++) {
+			wins[i] += other.wins[i];
+		}
+		for (int i = 0; i < triggers.length; i++) {
+			triggers[i] += other.triggers[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the number of simulated games.
+	 *
+	 * @return The number of games, finished or not.
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Gets the number of games abandoned after the maximal number of turns.
+	 *
+	 * @return The number of unfinished games.
+	 */
+	public long getUnfinished() {
+		return unfinished;
+	}
+
+	/**
+	 * Gets the mean length of the finished games.
+	 *
+	 * @return The mean number of turns, or NaN if no game was finished.
+	 */
+	public double getMeanLength() {
+		long finished = games - unfinished;
+		return finished == 0 ? Double.NaN : (double) totalTurns / finished;
+	}
+
+	/**
+	 * Gets the median length of the finished games.
+	 *
+	 * @return The median number of turns, or -1 if no game was finished.
+	 */
+	public int getMedianLength() {
+		return getPercentileLength(50.0);
+	}
+
+	/**
+	 * Gets a percentile of the length of the finished games (nearest rank).
+	 *
+	 * @param percentile The percentile, from 0 to 100.
+	 * @return The number of turns, or -1 if no game was finished.
+	 */
+	public int getPercentileLength(final double percentile) {
+		long finished = games - unfinished;
+		if (finished == 0) {
+			return -1;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * finished));
+		long seen = 0;
+		for (int turns = 0; turns < lengthHistogram.length; turns++) {
+			seen += lengthHistogram[turns];
+			if (seen >= rank) {
+				return turns;
+			}
+		}
+		return lengthHistogram.length - 1;
+	}
+
+	/**
+	 * Gets the share of the games won by a seat.
+	 *
+	 * @param serialNumber The serial number of the player (seat + 1).
+	 * @return The win rate from 0 to 1.
+	 */
+	public double getWinRate(final int serialNumber) {
+		return games == 0 ? Double.NaN : (double) wins[serialNumber - 1] / games;
+	}
+
+	/**
+	 * Gets how many times an obstacle moved a player.
+	 *
+	 * @param obstacle The index of the obstacle in the {@link BoardIndex}.
+	 * @return The number of moves by the obstacle.
+	 */
+	public long getTriggerCount(final int obstacle) {
+		return triggers[obstacle];
+	}
+
+	/**
+	 * Gets the number of seats in the simulated games.
+	 *
+	 * @return The number of players.
+	 */
+	public int getPlayerCount() {
+		return wins.length;
+	}
+
+	/**
+	 * Gets the number of obstacles on the simulated board.
+	 *
+	 * @return The number of obstacles.
+	 */
+	public int getObstacleCount() {
+		return triggers.length;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("games=").append(games)
+			.append(", unfinished=").append(unfinished)
+			.append(", mean=%.3f".formatted(getMeanLength()))
+			.append(", median=").append(getMedianLength())
+			.append(", p99=").append(getPercentileLength(99.0))
+			.append(", winRate=[");
+		for (int i = 1; i <= wins.length; i++) {
+			sb.append(i == 1 ? "" : ", ").append("%d: %.4f".formatted(i, getWinRate(i)));
+		}
+		return sb.append("], triggers=").append(Arrays.toString(triggers)).toString();
+	}
+}
@@ -0,0 +1,86 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times the phases of the startup, from the entry of {@link Main} to the first frame of the board.
+ * The phases are always recorded, a few calls to {@link System#nanoTime()}; with the system property
+ * {@code selkies.startupTiming=true} the report is printed once the board is shown, together with the time
+ * the JVM needed before {@code main}.
+ * <p>
+ * Phases may be marked from any thread.
+ */
+public final class StartupTimer {
+
+	public static final boolean ENABLED = Boolean.getBoolean("selkies.startupTiming");
+
+	private static final long START = System.nanoTime();
+
+	private static final List<String> PHASES = new ArrayList<>();
+
+	private static final List<Long> TIMES = new ArrayList<>();
+
+	private static boolean reported;
+
+	private StartupTimer() {
+	}
+
+	/**
+	 * Records the end of a phase.
+	 *
+	 * @param phase The name of the phase.
+	 */
+	public static synchronized void mark(final String phase) {
+		PHASES.add(phase);
+		TIMES.add(System.nanoTime() - START);
+	}
+
+	/**
+	 * Gets the time from the start to the end of a phase.
+	 *
+	 * @param phase The name of the phase.
+	 * @return The time in milliseconds, -1 if the phase was not marked.
+	 */
+	public static synchronized double getMillis(final String phase) {
+		int i = PHASES.indexOf(phase);
+		return i < 0 ? -1 : TIMES.get(i) / 1e6;
+	}
+
+	/**
+	 * Marks the last phase and prints the report if the timing is enabled, only the first call counts.
+	 *
+	 * @param phase The name of the last phase.
+	 */
+	public static void finish(final String phase) {
+		synchronized (StartupTimer.class) {
+			if (reported) {
+				return;
+			}
+			reported = true;
+		}
+		mark(phase);
+		if (ENABLED) {
+			System.out.println(report());
+		}
+	}
+
+	/**
+	 * Formats the phases, one per line with the time since the start and since the previous phase.
+	 *
+	 * @return The report.
+	 */
+	public static synchronized String report() {
+		StringBuilder sb = new StringBuilder("Startup, ms:\n");
+		// the uptime counts in whole milliseconds
+		long sinceJvm = ManagementFactory.getRuntimeMXBean().getUptime();
+		long sinceMain = (System.nanoTime() - START) / 1_000_000;
+		sb.append("%-24s %8d%n".formatted("JVM before main", sinceJvm - sinceMain));
+		long previous = 0;
+		for (int i = 0; i < PHASES.size(); i++) {
+			long time = TIMES.get(i);
+			sb.append("%-24s %8.1f %+8.1f%n".formatted(PHASES.get(i), time / 1e6, (time - previous) / 1e6));
+			previous = time;
+		}
+		return sb.toString();
+	}
+}
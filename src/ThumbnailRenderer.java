@@ -0,0 +1,221 @@
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Renders saved games to PNG thumbnails without a display: the grid, the obstacles as the game draws them and
+ * the tokens of the players. The saves are spread over a pool of threads, so thousands of saves are rendered using
+ * all the cores. They are drawn by a {@link BoardPainter} and not by Swing components: the UI defaults are read
+ * once by the constructor, and no component is created or painted off the Event Dispatch Thread.
+ * <p>
+ * Started by {@code Main thumbnails [options] <save or directory>...}, directories are searched recursively.
+ * Options: {@code --out <dir>} (default: next to each save), {@code --size <pixels>} (default 400),
+ * {@code --columns <n>} and {@code --rows <n>} for the saves which do not record their board (default: the board of
+ * {@code selkies.columns}/{@code selkies.rows}),
+ * {@code --threads <n>} (default: the number of cores).
+ */
+public class ThumbnailRenderer {
+
+	public static final int DEFAULT_SIZE = 400;
+
+	private final BoardLayout layout;
+
+	private final int size;
+
+	private final Path outputDirectory;
+
+	private final Font font;
+
+	private final Color background;
+
+	private final BoardPainter painter;
+
+	/**
+	 * Constructs a renderer, it reads the font and the background of the cells from the UI defaults.
+	 *
+	 * @param layout          The size of the board of the saves which do not record it.
+	 * @param size            The width and height of a thumbnail in pixels.
+	 * @param outputDirectory The directory of the thumbnails, null to write each next to its save.
+	 */
+	public ThumbnailRenderer(final BoardLayout layout, final int size, final Path outputDirectory) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Thumbnail size has to be positive, got " + size);
+		}
+		this.layout = layout;
+		this.size = size;
+		this.outputDirectory = outputDirectory;
+		this.font = UIManager.getFont("Button.font");
+		Color buttonBackground = UIManager.getColor("Button.background");
+		this.background = buttonBackground != null ? buttonBackground : new Color(238, 238, 238);
+		this.painter = new BoardPainter(layout, font, background, Color.BLACK);
+	}
+
+	/**
+	 * Renders a saved game into an image, it may be called by several threads at once. The board is the one
+	 * recorded in the save, the one of the renderer for the saves of the serialized format.
+	 *
+	 * @param save The saved game.
+	 * @return The thumbnail.
+	 */
+	public BufferedImage render(final Save save) {
+		BoardLayout saved = save.getLayout();
+		BoardLayout board = saved != null ? saved : layout;
+		for (Obstacle obstacle : save.getObstacleList()) {
+			checkCell(board, obstacle.getStartPosition());
+			checkCell(board, obstacle.getEndPosition());
+		}
+		for (Player player : save.getPlayerList()) {
+			checkCell(board, player.getPlayerPos());
+		}
+		BoardPainter boardPainter = board == layout ? painter : new BoardPainter(board, font, background, Color.BLACK);
+		BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2 = image.createGraphics();
+		try {
+			boardPainter.paint(g2, size, size, save.getObstacleList(), save.getPlayerList());
+		} finally {
+			g2.dispose();
+		}
+		return image;
+	}
+
+	private static void checkCell(final BoardLayout board, final int cell) {
+		if (cell < 0 || cell >= board.getCellCount()) {
+			throw new IllegalArgumentException("Cell %d is out of the board %s".formatted(cell + 1, board));
+		}
+	}
+
+	/**
+	 * Renders a saved game file into a PNG file.
+	 *
+	 * @param saveFile The saved game.
+	 * @return The written thumbnail.
+	 * @throws IOException            if a file can't be read or written.
+	 * @throws ClassNotFoundException if the file is not a saved game.
+	 */
+	public Path render(final Path saveFile) throws IOException, ClassNotFoundException {
+		BufferedImage image = render(Save.load(saveFile.toFile()));
+		Path output = thumbnailOf(saveFile);
+		if (!ImageIO.write(image, "png", output.toFile())) {
+			throw new IOException("No PNG writer available");
+		}
+		return output;
+	}
+
+	private Path thumbnailOf(final Path saveFile) {
+		String name = saveFile.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		String png = (dot > 0 ? name.substring(0, dot) : name) + ".png";
+		Path directory = outputDirectory != null ? outputDirectory : saveFile.toAbsolutePath().getParent();
+		return directory.resolve(png);
+	}
+
+	/**
+	 * Renders the saves in parallel. A save which fails is reported and the others are rendered anyway.
+	 *
+	 * @param saveFiles The saved games.
+	 * @param threads   The number of threads.
+	 * @return The number of saves which failed.
+	 * @throws InterruptedException if the thread is interrupted while waiting for the pool.
+	 */
+	public int renderAll(final List<Path> saveFiles, final int threads) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Path>> results = new ArrayList<>(saveFiles.size());
+			for (Path saveFile : saveFiles) {
+				results.add(pool.submit(() -> render(saveFile)));
+			}
+			int failed = 0;
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					results.get(i).get();
+				} catch (ExecutionException e) {
+					failed++;
+					System.err.println("Can't render %s: %s".formatted(saveFiles.get(i), e.getCause()));
+				}
+			}
+			return failed;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Command line entry, see the class description for the arguments.
+	 *
+	 * @param args The options followed by the saves and the directories of saves.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		BoardLayout layout = BoardLayout.fromSystemProperties();
+		int columns = layout.getColumns();
+		int rows = layout.getRows();
+		int size = DEFAULT_SIZE;
+		int threads = Runtime.getRuntime().availableProcessors();
+		Path out = null;
+		List<Path> saves = new ArrayList<>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--out" -> out = Path.of(args[++i]);
+					case "--size" -> size = Integer.parseInt(args[++i]);
+					case "--columns" -> columns = Integer.parseInt(args[++i]);
+					case "--rows" -> rows = Integer.parseInt(args[++i]);
+					case "--threads" -> threads = Integer.parseInt(args[++i]);
+					default -> collect(Path.of(args[i]), saves);
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			usage();
+			return;
+		}
+		if (saves.isEmpty() || threads < 1) {
+			usage();
+			return;
+		}
+		if (out != null) {
+			Files.createDirectories(out);
+		}
+
+		ThumbnailRenderer renderer = new ThumbnailRenderer(new BoardLayout(columns, rows), size, out);
+		long start = System.nanoTime();
+		int failed = renderer.renderAll(saves, threads);
+		System.out.println("Rendered %d of %d saves in %d ms".formatted(
+			saves.size() - failed,
+			saves.size(),
+			(System.nanoTime() - start) / 1_000_000
+		));
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static void collect(final Path path, final List<Path> saves) throws IOException {
+		if (Files.isDirectory(path)) {
+			try (Stream<Path> files = Files.walk(path)) {
+				files.filter(Files::isRegularFile)
+					.filter(p -> !p.getFileName().toString().endsWith(".png"))
+					.sorted()
+					.forEach(saves::add);
+			}
+		} else {
+			saves.add(path);
+		}
+	}
+
+	private static void usage() {
+		System.err.println(
+			"Usage: Main thumbnails [--out <dir>] [--size <pixels>] [--columns <n>] [--rows <n>] [--threads <n>]"
+				+ " <save or directory>..."
+		);
+	}
+}
@@ -0,0 +1,339 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.util.ArrayDeque;
+
+/**
+ * Animates the token of a player along its move: cell by cell for the dice, then along the line of a Munro or
+ * the curve of a Selkie. The position is interpolated from the elapsed time, so when the Event Dispatch Thread
+ * is late the token jumps to where it should be and the late frames are dropped instead of queued.
+ * Every frame repaints only the bounding box of the token, the old and the new one.
+ * <p>
+ * The animator only paints, the game state is updated at once, so input is accepted during an animation.
+ * A new move finishes the running one first. All methods must be called on the Event Dispatch Thread.
+ */
+public class TokenAnimator {
+
+	public static final int FRAME_MILLIS = 16;
+
+	public static final int STEP_MILLIS = 90;
+
+	public static final int OBSTACLE_MILLIS = 500;
+
+	private static final long FRAME_NANOS = FRAME_MILLIS * 1_000_000L;
+
+	/**
+	 * The board view the animator paints on.
+	 */
+	public interface Host {
+
+		/**
+		 * Gets the component the moving token is painted on, it calls {@link #paint(Graphics2D)}.
+		 *
+		 * @return The component.
+		 */
+		JComponent getAnimationLayer();
+
+		/**
+		 * Finds the anchor point of a cell, where the obstacles start and end, in coordinates of the layer.
+		 *
+		 * @param cell The cell.
+		 * @param out  The point to fill.
+		 */
+		void locate(int cell, Point out);
+
+		/**
+		 * Gets the size of a token in pixels.
+		 *
+		 * @return The size of a token.
+		 */
+		int getTokenSize();
+
+		/**
+		 * Called when the token arrived at the end of its move, the board shows it on the cell again.
+		 *
+		 * @param player The player.
+		 * @param cell   The cell where the move ended.
+		 */
+		void arrived(Player player, int cell);
+	}
+
+	private final Host host;
+
+	private final Timer timer;
+
+	private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+	private final Point from = new Point();
+
+	private final Point to = new Point();
+
+	private final Point2D.Double position = new Point2D.Double();
+
+	private final Rectangle dirty = new Rectangle();
+
+	private final Rectangle lastBox = new Rectangle();
+
+	private Player player;
+
+	private int finalCell;
+
+	private Segment segment;
+
+	private long segmentStart;
+
+	private long lastFrame;
+
+	private long frames;
+
+	private long droppedFrames;
+
+	private long totalFrameNanos;
+
+	private long maxFrameNanos;
+
+	/**
+	 * Constructs an animator.
+	 *
+	 * @param host The board view.
+	 */
+	public TokenAnimator(final Host host) {
+		this.host = host;
+		this.timer = new Timer(FRAME_MILLIS, e -> frame());
+		// queued ticks are merged, a late thread skips frames instead of catching up
+		this.timer.setCoalesce(true);
+	}
+
+	/**
+	 * Adds a walk of the dice to the move of the player, the token leaves the board until it arrives.
+	 * A walk beyond the last cell bounces back as in {@link GameEngine#bounce(int, int)}.
+	 *
+	 * @param player   The player.
+	 * @param fromCell The cell the walk starts at.
+	 * @param steps    The number of steps.
+	 * @param lastCell The last cell of the board.
+	 */
+	public void walk(final Player player, final int fromCell, final int steps, final int lastCell) {
+		prepare(player, fromCell);
+		int cell = fromCell;
+		for (int i = 1; i <= steps; i++) {
+			int next = GameEngine.bounce(fromCell + i, lastCell);
+			segments.add(new Segment(cell, next, null, STEP_MILLIS));
+			cell = next;
+		}
+		finalCell = cell;
+		start();
+	}
+
+	/**
+	 * Adds a ride on an obstacle to the move of the player.
+	 *
+	 * @param player   The player.
+	 * @param obstacle The obstacle, ridden from its start cell to its end cell.
+	 */
+	public void ride(final Player player, final Obstacle obstacle) {
+		prepare(player, obstacle.getStartPosition());
+		segments.add(new Segment(obstacle.getStartPosition(), obstacle.getEndPosition(), obstacle, OBSTACLE_MILLIS));
+		finalCell = obstacle.getEndPosition();
+		start();
+	}
+
+	/**
+	 * Checks if a token is moving.
+	 *
+	 * @return True during an animation.
+	 */
+	public boolean isRunning() {
+		return player != null;
+	}
+
+	/**
+	 * Ends the running animation at once, the token is put on its final cell.
+	 */
+	public void finish() {
+		if (player == null) {
+			return;
+		}
+		Player arrived = player;
+		stop();
+		host.arrived(arrived, finalCell);
+	}
+
+	/**
+	 * Drops the running animation without putting the token anywhere, for a board which is rebuilt.
+	 */
+	public void cancel() {
+		stop();
+	}
+
+	/**
+	 * Paints the moving token, called by the host layer after its own content.
+	 *
+	 * @param g2 The Graphics2D object to paint on.
+	 */
+	public void paint(final Graphics2D g2) {
+		if (player == null || segment == null) {
+			return;
+		}
+		PictogramAtlas.draw(
+			g2,
+			player.getPictogramPainter(),
+			(int) Math.round(position.x),
+			(int) Math.round(position.y),
+			host.getTokenSize()
+		);
+	}
+
+	/**
+	 * Continues a move of the same player or finishes the move of another one.
+	 */
+	private void prepare(final Player player, final int fromCell) {
+		if (this.player != null && this.player != player) {
+			finish();
+		}
+		if (this.player == null) {
+			this.player = player;
+			host.locate(fromCell, from);
+			position.setLocation(from.x, from.y);
+			lastBox.setBounds(0, 0, 0, 0);
+		}
+	}
+
+	private void start() {
+		if (!timer.isRunning()) {
+			lastFrame = System.nanoTime();
+			timer.start();
+		}
+	}
+
+	private void stop() {
+		timer.stop();
+		segments.clear();
+		segment = null;
+		player = null;
+		repaintBox(lastBox);
+	}
+
+	/**
+	 * Moves the token to the position of the current time and repaints the boxes it left and entered.
+	 */
+	private void frame() {
+		final long now = System.nanoTime();
+		final long interval = now - lastFrame;
+		lastFrame = now;
+		frames++;
+		totalFrameNanos += interval;
+		maxFrameNanos = Math.max(maxFrameNanos, interval);
+		if (interval > FRAME_NANOS * 3 / 2) {
+			droppedFrames += interval / FRAME_NANOS - 1;
+		}
+
+		if (segment == null) {
+			if (!nextSegment(now)) {
+				finish();
+				return;
+			}
+		}
+		long elapsed = now - segmentStart;
+		while (elapsed >= segment.nanos) {
+			long end = segmentStart + segment.nanos;
+			if (!nextSegment(end)) {
+				finish();
+				return;
+			}
+			elapsed = now - segmentStart;
+		}
+		locateSegment();
+		double t = (double) elapsed / segment.nanos;
+		if (segment.obstacle != null) {
+			segment.obstacle.pointAt(t, from.x, from.y, to.x, to.y, position);
+		} else {
+			position.setLocation(from.x + (to.x - from.x) * t, from.y + (to.y - from.y) * t);
+		}
+
+		int size = host.getTokenSize();
+		dirty.setBounds(
+			(int) Math.round(position.x) - size / 2 - 1,
+			(int) Math.round(position.y) - size / 2 - 1,
+			size + 2,
+			size + 2
+		);
+		repaintBox(lastBox);
+		repaintBox(dirty);
+		lastBox.setBounds(dirty);
+	}
+
+	private boolean nextSegment(final long start) {
+		segment = segments.poll();
+		segmentStart = start;
+		return segment != null;
+	}
+
+	private void locateSegment() {
+		host.locate(segment.fromCell, from);
+		host.locate(segment.toCell, to);
+	}
+
+	private void repaintBox(final Rectangle box) {
+		if (!box.isEmpty()) {
+			host.getAnimationLayer().repaint(box);
+		}
+	}
+
+	/**
+	 * Gets the number of frames played.
+	 *
+	 * @return The number of frames.
+	 */
+	public long getFrameCount() {
+		return frames;
+	}
+
+	/**
+	 * Gets the number of frames skipped because the Event Dispatch Thread was late.
+	 *
+	 * @return The number of dropped frames.
+	 */
+	public long getDroppedFrames() {
+		return droppedFrames;
+	}
+
+	/**
+	 * Gets the mean time between two frames.
+	 *
+	 * @return The mean frame time in milliseconds, 0 before the first frame.
+	 */
+	public double getMeanFrameMillis() {
+		return frames == 0 ? 0 : totalFrameNanos / 1e6 / frames;
+	}
+
+	/**
+	 * Gets the longest time between two frames.
+	 *
+	 * @return The longest frame time in milliseconds.
+	 */
+	public double getMaxFrameMillis() {
+		return maxFrameNanos / 1e6;
+	}
+
+	/**
+	 * One part of a move, a step between two cells or a ride on an obstacle.
+	 */
+	private static final class Segment {
+
+		private final int fromCell;
+
+		private final int toCell;
+
+		private final Obstacle obstacle;
+
+		private final long nanos;
+
+		private Segment(final int fromCell, final int toCell, final Obstacle obstacle, final int millis) {
+			this.fromCell = fromCell;
+			this.toCell = toCell;
+			this.obstacle = obstacle;
+			this.nanos = millis * 1_000_000L;
+		}
+	}
+}
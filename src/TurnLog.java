@@ -0,0 +1,214 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+/**
+ * Log of the turns of every game played, for the analysis of the games with {@code Main export --turns}. Unlike
+ * the {@link MoveJournal}, which is compacted and only serves the recovery, the log is never rewritten: a game
+ * is kept in memory while it is played and appended to the file as a whole when it is won, or when the next game
+ * starts before that. A game is the state it started from, in the format of {@link SaveCodec}, followed by its
+ * turns as records of the journal. A loaded game is logged from the state it was loaded in.
+ * <p>
+ * The games are appended on the I/O thread of {@link GameIO}. A crash loses the game being played, and leaves at
+ * worst a torn last game, which the reader skips.
+ * <p>
+ * The system property {@code selkies.turns} sets the file, by default {@code .selkies/turns.log} in the home
+ * directory, {@code false} for no log. The methods must be called on the Event Dispatch Thread.
+ */
+public class TurnLog implements GameListener {
+
+	private static final int GAME_MAGIC = 0x534C4B54;
+
+	private static final int GAME_HEADER_SIZE = 12;
+
+	// the last game was being appended when the program stopped
+	private static final String TORN = "Skipped the torn last game of ";
+
+	private final Path file;
+
+	private final CRC32 crc = new CRC32();
+
+	private final ByteArrayOutputStream records = new ByteArrayOutputStream(64 * MoveJournal.RECORD_SIZE);
+
+	// The encoded game the turns start from, null when no game is logged
+	private byte[] start;
+
+	private int turns;
+
+	// State of the turn being played
+	private int dice;
+
+	private int seat = -1;
+
+	private int from;
+
+	private int to;
+
+	private int destination;
+
+	/**
+	 * Constructs the log of a file, nothing is written before the first game is finished.
+	 *
+	 * @param file The file of the log, its directory is created if missing.
+	 * @throws IOException if the directory can't be created.
+	 */
+	public TurnLog(final Path file) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		this.file = file;
+	}
+
+	/**
+	 * Creates the log configured by the system property {@code selkies.turns}.
+	 *
+	 * @return The log, null if it is turned off or the directory can't be created.
+	 */
+	public static TurnLog fromSystemProperties() {
+		String path = System.getProperty("selkies.turns");
+		if ("false".equalsIgnoreCase(path)) {
+			return null;
+		}
+		try {
+			return new TurnLog(path != null
+				? Paths.get(path)
+				: Paths.get(System.getProperty("user.home"), ".selkies", "turns.log"));
+		} catch (IOException e) {
+			System.err.println("No turn log: " + e);
+			return null;
+		}
+	}
+
+	/**
+	 * Starts the log of a new or a loaded game, the game logged before is appended to the file if it has turns.
+	 *
+	 * @param game The game before its first turn.
+	 */
+	public void start(final Save game) {
+		finish();
+		try {
+			start = game.toBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Records the dice of the turn about to be played.
+	 *
+	 * @param dice The value of the dice.
+	 */
+	public void rolled(final int dice) {
+		this.dice = dice;
+	}
+
+	@Override
+	public void playerMoved(final int seat, final int from, final int to) {
+		this.seat = seat;
+		this.from = from;
+		this.to = to;
+		this.destination = to;
+	}
+
+	@Override
+	public void obstacleTriggered(final int seat, final int from, final int to) {
+		this.destination = to;
+	}
+
+	@Override
+	public void turnChanged(final int seat) {
+		turnPlayed();
+	}
+
+	@Override
+	public void gameWon(final int seat) {
+		turnPlayed();
+		finish();
+	}
+
+	/**
+	 * Appends the logged game to the file, if it has turns, and ends its log.
+	 *
+	 * @return The future of the append, completed at once if there was nothing to append.
+	 */
+	public CompletableFuture<Void> finish() {
+		byte[] game = start;
+		start = null;
+		if (game == null || turns == 0) {
+			records.reset();
+			turns = 0;
+			return CompletableFuture.completedFuture(null);
+		}
+		ByteBuffer block = ByteBuffer.allocate(GAME_HEADER_SIZE + game.length + records.size());
+		block.putInt(GAME_MAGIC).putInt(game.length).putInt(turns).put(game).put(records.toByteArray());
+		records.reset();
+		turns = 0;
+		return GameIO.appendToFile(file, block.array()).whenComplete((done, error) -> {
+			if (error != null) {
+				System.err.println("Turn log failed: " + error);
+			}
+		});
+	}
+
+	private void turnPlayed() {
+		if (seat < 0) {
+			return;
+		}
+		if (start != null) {
+			records.writeBytes(MoveJournal.record(crc, seat, dice, from, to, destination));
+			turns++;
+		}
+		seat = -1;
+	}
+
+	/**
+	 * Reads the games of a log, each from its start, and replays their turns.
+	 *
+	 * @param file     The log.
+	 * @param listener Receives every game at its start and every turn after it was applied.
+	 * @return The number of games read.
+	 * @throws IOException if the log is corrupted, can't be read, or the listener fails.
+	 */
+	public static long replay(final Path file, final MoveJournal.ReplayListener listener) throws IOException {
+		long games = 0;
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+			byte[] header = new byte[GAME_HEADER_SIZE];
+			int read;
+			while ((read = in.readNBytes(header, 0, GAME_HEADER_SIZE)) > 0) {
+				if (read < GAME_HEADER_SIZE) {
+					System.err.println(TORN + file);
+					break;
+				}
+				ByteBuffer h = ByteBuffer.wrap(header);
+				int length = h.getInt(4);
+				int turns = h.getInt(8);
+				if (h.getInt(0) != GAME_MAGIC || length < 0
+					|| turns < 0 || turns > Integer.MAX_VALUE / MoveJournal.RECORD_SIZE
+				) {
+					throw new IOException("Not a turn log, or corrupted after %d games: %s".formatted(games, file));
+				}
+				byte[] game = in.readNBytes(length);
+				byte[] records = in.readNBytes(turns * MoveJournal.RECORD_SIZE);
+				if (game.length < length || records.length < turns * MoveJournal.RECORD_SIZE) {
+					System.err.println(TORN + file);
+					break;
+				}
+				Save save = SaveCodec.read(new ByteArrayInputStream(game));
+				games++;
+				listener.gameStarted(save);
+				MoveJournal.replayRecords(new ByteArrayInputStream(records), save, listener);
+			}
+		}
+		return games;
+	}
+}